@@ -3,43 +3,83 @@
 /// Created By:   Wyatt Bechtle
 /// Created On:   2025-10-11
 /// Purpose:      Adds global model attributes to all controllers
-///  Updated By: 
-///  Update Notes:
+///  Updated By:  Capstone Team
+///  Update Notes: unreadCount comes from UnreadCountCache (in-memory counter keyed by
+///                username) instead of loading every unread Notification per request.
+///                Skipped for handlers that write JSON (@ResponseBody / ResponseEntity),
+///                which never render the navbar.
+///                Added unreadMessageCount (direct messages, from the conversation store)
+///                for the messages badge; unreadCount is now notifications only.
+///                unreadMessageCount comes from UnreadMessageCountCache instead of two
+///                aggregate queries per render.
 ///  
 /// ==========================================
 package com.loreweave.loreweave.config;
 
-import com.loreweave.loreweave.repository.UserRepository;
-import com.loreweave.loreweave.service.NotificationService;
+import com.loreweave.loreweave.service.UnreadCountCache;
+import com.loreweave.loreweave.service.UnreadMessageCountCache;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
 
 // Adds attributes to the model for all controllers
 @ControllerAdvice 
 public class GlobalModelAdvice {
 
-    private final NotificationService notificationService;
-    private final UserRepository userRepository;
+    private final UnreadCountCache unreadCountCache;
+    private final UnreadMessageCountCache unreadMessageCountCache;
 
-    public GlobalModelAdvice(NotificationService notificationService,
-                             UserRepository userRepository) {
-        this.notificationService = notificationService;
-        this.userRepository = userRepository;
+    public GlobalModelAdvice(UnreadCountCache unreadCountCache,
+                             UnreadMessageCountCache unreadMessageCountCache) {
+        this.unreadCountCache = unreadCountCache;
+        this.unreadMessageCountCache = unreadMessageCountCache;
     }
 
     // Adds unread notification count to the model
     @ModelAttribute("unreadCount")
-    public int populateUnreadCount(Authentication auth) {
+    public long populateUnreadCount(Authentication auth, HttpServletRequest request) {
 
         // If user is not authenticated, return 0
         if (auth == null || !auth.isAuthenticated()
                 || "anonymousUser".equals(auth.getPrincipal())) {
             return 0;
         }
-        // Fetch user and count unread notifications
-        return userRepository.findByUsername(auth.getName())
-                .map(user -> notificationService.getUnreadNotifications(user).size())
-                .orElse(0);
+        // REST/JSON handlers have no navbar to render
+        if (!rendersView(request)) {
+            return 0;
+        }
+        // Cached per username; counted in the database only on a cache miss
+        return unreadCountCache.get(auth.getName());
+    }
+
+    // Adds unread direct message count (messages badge) to the model
+    @ModelAttribute("unreadMessageCount")
+    public long populateUnreadMessageCount(Authentication auth, HttpServletRequest request) {
+        if (auth == null || !auth.isAuthenticated()
+                || "anonymousUser".equals(auth.getPrincipal())) {
+            return 0;
+        }
+        if (!rendersView(request)) {
+            return 0;
+        }
+        // Cached per username; summed over the user's conversation rows only on a cache miss
+        return unreadMessageCountCache.get(auth.getName());
+    }
+
+    // True unless the matched handler writes its return value as the response body
+    private static boolean rendersView(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        return !(method.hasMethodAnnotation(ResponseBody.class)
+                || AnnotatedElementUtils.hasAnnotation(method.getBeanType(), ResponseBody.class)
+                || HttpEntity.class.isAssignableFrom(method.getMethod().getReturnType()));
     }
 }
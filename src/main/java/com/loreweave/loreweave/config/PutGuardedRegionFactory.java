@@ -0,0 +1,72 @@
+/// ==========================================
+/// File Name:    PutGuardedRegionFactory.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      The JCache region factory, with one fix for the query-results region:
+///               a put from a Session whose cache mode does not allow puts (GET, i.e.
+///               CacheStoreMode.BYPASS) is dropped. Hibernate 6.4 skips those puts for
+///               entities, but a cacheable query that misses in GET mode still stores its
+///               result. ReplicaReadListener relies on this so a replica transaction
+///               never caches a query result read from a lagging replica.
+///               Installed by SecondLevelCacheConfig.
+/// ==========================================
+
+package com.loreweave.loreweave.config;
+
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+class PutGuardedRegionFactory extends JCacheRegionFactory {
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new PutGuardedStorageAccess(super.createQueryResultsRegionStorageAccess(regionName, sessionFactory));
+    }
+
+    private record PutGuardedStorageAccess(StorageAccess delegate) implements StorageAccess {
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return delegate.getFromCache(key, session);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            if (session == null || session.getCacheMode().isPutEnabled()) {
+                delegate.putIntoCache(key, value, session);
+            }
+        }
+
+        @Override
+        public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+            delegate.removeFromCache(key, session);
+        }
+
+        @Override
+        public void clearCache(SharedSessionContractImplementor session) {
+            delegate.clearCache(session);
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return delegate.contains(key);
+        }
+
+        @Override
+        public void evictData() {
+            delegate.evictData();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            delegate.evictData(key);
+        }
+
+        @Override
+        public void release() {
+            delegate.release();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/// ==========================================
+/// File Name:    ReadReplicaConfig.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Read-replica routing, active only when loreweave.datasource.replica.url
+///               is set (otherwise Spring Boot's single DataSource is used unchanged).
+///               Two Hikari pools: "primary" (spring.datasource.*) and "replica" (read-only,
+///               pool settings copied from the primary). The application DataSource is a
+///               LazyConnectionDataSourceProxy: it waits for the first statement, so by then
+///               the transaction is known to be @Transactional(readOnly = true) or not.
+///               Writes always use the primary; read-only transactions go through
+///               ReplicaRoutingDataSource, which uses the replica unless
+///               ReadYourWritesGuard pins the caller to the primary after a recent write.
+///
+/// Updated By:   Capstone Team
+/// Update Notes: Added ReplicaReadListener, which picks the pool when a read-only
+///               transaction begins and keeps replica reads out of the second-level
+///               and query caches. The EntityManagerFactory is looked up lazily, as
+///               it is built on top of this DataSource.
+/// ==========================================
+
+package com.loreweave.loreweave.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty("loreweave.datasource.replica.url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Qualifier("primaryDataSource") HikariDataSource primary,
+            @Value("${loreweave.datasource.replica.url}") String url,
+            @Value("${loreweave.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${loreweave.datasource.replica.password:${spring.datasource.password:}}") String password,
+            @Value("${loreweave.datasource.replica.maximum-pool-size:0}") int maximumPoolSize) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setJdbcUrl(url);
+        replica.setUsername(username);
+        replica.setPassword(password);
+        replica.setReadOnly(true);
+        // Same pool behaviour as the primary unless sized separately (0 = primary's size).
+        // Hikari reports unset sizes as -1; those keep Hikari's defaults here too.
+        int poolSize = maximumPoolSize > 0 ? maximumPoolSize : primary.getMaximumPoolSize();
+        if (poolSize > 0) {
+            replica.setMaximumPoolSize(poolSize);
+        }
+        if (primary.getMinimumIdle() >= 0) {
+            replica.setMinimumIdle(primary.getMinimumIdle());
+        }
+        replica.setIdleTimeout(primary.getIdleTimeout());
+        replica.setMaxLifetime(primary.getMaxLifetime());
+        replica.setConnectionTimeout(primary.getConnectionTimeout());
+        return replica;
+    }
+
+    // A TransactionExecutionListener bean, so Spring Boot registers it with the transaction manager
+    @Bean
+    public ReadYourWritesGuard readYourWritesGuard(
+            @Value("${loreweave.datasource.replica.read-your-writes-window:5s}") Duration window,
+            @Value("${loreweave.datasource.replica.max-tracked-writers:100000}") long maxTracked) {
+        return new ReadYourWritesGuard(window, maxTracked);
+    }
+
+    // Also a TransactionExecutionListener bean
+    @Bean
+    public ReplicaReadListener replicaReadListener(ReadYourWritesGuard readYourWritesGuard,
+                                                   ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        return new ReplicaReadListener(readYourWritesGuard, entityManagerFactory);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadYourWritesGuard readYourWritesGuard,
+                                 MeterRegistry meterRegistry,
+                                 ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(
+                new ReplicaRoutingDataSource(primary, replica, readYourWritesGuard, meterRegistry, entityManagerFactory));
+        return dataSource;
+    }
+}
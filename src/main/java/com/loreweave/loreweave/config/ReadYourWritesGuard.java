@@ -0,0 +1,121 @@
+/// ==========================================
+/// File Name:    ReadYourWritesGuard.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Replica-lag guard for read-only transactions. When a write transaction
+///               commits (a vote, a new part, a profile edit, ...) the committing thread,
+///               user and HTTP session are pinned to the primary for a short window, so the
+///               redirect that follows never reads from a replica that has not caught up.
+///               Within a web request the thread pin is a request attribute, so it ends
+///               with the request instead of following a pooled worker thread.
+///               Registered as a TransactionExecutionListener, so every transaction
+///               manager commit is seen without touching the services.
+///               Consulted by ReplicaRoutingDataSource.
+/// ==========================================
+
+package com.loreweave.loreweave.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReadYourWritesGuard implements TransactionExecutionListener {
+
+    private final long windowNanos;
+
+    // "u:<username>" / "s:<session id>" of recent writers; entries expire with the window
+    private final Cache<String, Boolean> recentWriters;
+
+    // Covers work done later in the same request; kept on the request so a pooled
+    // Tomcat thread does not carry it into someone else's request
+    private static final String LAST_WRITE_ATTRIBUTE = ReadYourWritesGuard.class.getName() + ".lastWrite";
+
+    // Same, for background jobs (no request bound to the thread)
+    private final ThreadLocal<Long> lastWriteOnThread = new ThreadLocal<>();
+
+    public ReadYourWritesGuard(Duration window, long maxTracked) {
+        this.windowNanos = window.toNanos();
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxTracked)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure == null && !transaction.isReadOnly()) {
+            recordWrite();
+        }
+    }
+
+    /**
+     * Pin the current thread, user and session to the primary for the window.
+     */
+    public void recordWrite() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(LAST_WRITE_ATTRIBUTE, System.nanoTime(), RequestAttributes.SCOPE_REQUEST);
+        } else {
+            lastWriteOnThread.set(System.nanoTime());
+        }
+        for (String key : callerKeys()) {
+            recentWriters.put(key, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * @return true if the caller committed a write recently enough that a replica may not have it yet
+     */
+    public boolean mustReadPrimary() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            if (request.getAttribute(LAST_WRITE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long last
+                    && System.nanoTime() - last < windowNanos) {
+                return true;
+            }
+        } else {
+            Long last = lastWriteOnThread.get();
+            if (last != null) {
+                if (System.nanoTime() - last < windowNanos) {
+                    return true;
+                }
+                lastWriteOnThread.remove();
+            }
+        }
+        for (String key : callerKeys()) {
+            if (recentWriters.getIfPresent(key) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Session as well as username: a username change keeps the same session
+    private static List<String> callerKeys() {
+        List<String> keys = new ArrayList<>(2);
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            keys.add("u:" + auth.getName());
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servlet) {
+            HttpSession session = servlet.getRequest().getSession(false);
+            if (session != null) {
+                keys.add("s:" + session.getId());
+            }
+        }
+        return keys;
+    }
+}
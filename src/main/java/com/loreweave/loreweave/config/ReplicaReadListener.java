@@ -0,0 +1,69 @@
+/// ==========================================
+/// File Name:    ReplicaReadListener.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Picks the pool for each read-only JPA transaction when it begins,
+///               before any query has been created, and records the choice on the
+///               transaction's Session for ReplicaRoutingDataSource to follow.
+///               A replica may lag the primary, so a replica transaction's Session
+///               runs with CacheStoreMode.BYPASS: it still reads the second-level and
+///               query caches but never fills them, so a stale row or query result
+///               cannot be served later to readers of the primary. It is set as the
+///               JPA property because find() and new queries take their cache mode
+///               from the Session's properties, not from Session.setCacheMode.
+///               Query results are kept out by PutGuardedRegionFactory.
+///               Registered as a TransactionExecutionListener bean by ReadReplicaConfig.
+/// ==========================================
+
+package com.loreweave.loreweave.config;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ReplicaReadListener implements TransactionExecutionListener {
+
+    // Session property holding Boolean.TRUE (replica) or Boolean.FALSE (primary)
+    static final String READ_FROM_REPLICA = ReplicaReadListener.class.getName() + ".readFromReplica";
+
+    private final ReadYourWritesGuard guard;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    public ReplicaReadListener(ReadYourWritesGuard guard, ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.guard = guard;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure != null || !transaction.isReadOnly()) {
+            return;
+        }
+        Session session = currentSession(entityManagerFactory);
+        if (session == null) {
+            return;
+        }
+        boolean replica = !guard.mustReadPrimary();
+        session.setProperty(READ_FROM_REPLICA, replica);
+        if (replica) {
+            session.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        }
+    }
+
+    /**
+     * @return the Session of the JPA transaction bound to this thread, or null outside one
+     */
+    static Session currentSession(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        EntityManagerFactory factory = entityManagerFactory.getIfUnique();
+        if (factory != null && TransactionSynchronizationManager.getResource(factory) instanceof EntityManagerHolder holder) {
+            return holder.getEntityManager().unwrap(Session.class);
+        }
+        return null;
+    }
+}
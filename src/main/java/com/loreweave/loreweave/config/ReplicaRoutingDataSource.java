@@ -0,0 +1,78 @@
+/// ==========================================
+/// File Name:    ReplicaRoutingDataSource.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Connection source for read-only transactions: the replica pool,
+///               unless ReadYourWritesGuard says the caller must still read the primary.
+///               Sits behind the LazyConnectionDataSourceProxy set up by
+///               ReadReplicaConfig, which only asks it for a connection once the
+///               transaction is known to be read-only.
+///               In a JPA transaction the choice was already made when it began (by
+///               ReplicaReadListener, recorded on the Session); otherwise the guard is asked here.
+///
+///               Metrics: loreweave.datasource.read-routing{target=replica|primary}
+///
+/// Updated By:   Capstone Team
+/// Update Notes: Follows ReplicaReadListener's per-transaction choice, so a Session that
+///               was set not to fill the Hibernate caches is the one the replica serves.
+/// ==========================================
+
+package com.loreweave.loreweave.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final ReadYourWritesGuard guard;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final Counter toReplica;
+    private final Counter toPrimary;
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                             ReadYourWritesGuard guard, MeterRegistry meterRegistry,
+                             ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.guard = guard;
+        this.entityManagerFactory = entityManagerFactory;
+        this.toReplica = counter(meterRegistry, REPLICA);
+        this.toPrimary = counter(meterRegistry, PRIMARY);
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!readFromReplica()) {
+            toPrimary.increment();
+            return PRIMARY;
+        }
+        toReplica.increment();
+        return REPLICA;
+    }
+
+    private boolean readFromReplica() {
+        Session session = ReplicaReadListener.currentSession(entityManagerFactory);
+        if (session != null && session.getProperties().get(ReplicaReadListener.READ_FROM_REPLICA) instanceof Boolean chosen) {
+            return chosen;
+        }
+        return !guard.mustReadPrimary();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("loreweave.datasource.read-routing")
+                .description("Read-only transactions by the pool they were served from")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,17 @@
+/// ==========================================
+/// File Name:    SchedulingConfig.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Enables @Scheduled background jobs (notification outbox polling,
+///               SSE heartbeats, lore point reconciliation, notification retention).
+/// ==========================================
+
+package com.loreweave.loreweave.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
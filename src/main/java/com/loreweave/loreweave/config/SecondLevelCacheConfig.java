@@ -0,0 +1,116 @@
+/// ==========================================
+/// File Name:    SecondLevelCacheConfig.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Hibernate second-level and query cache on an in-process JCache
+///               provider (Caffeine). Every region is created here with its own size
+///               bound and TTL (loreweave.l2-cache.*), and Hibernate is told to fail on
+///               any region it was not given, so nothing is ever cached unbounded.
+///               Cached entities: User, Character, Story (READ_WRITE). Cacheable
+///               queries use the shared query-results region; the update-timestamps
+///               region that invalidates them is never evicted or expired.
+///
+///               Metrics per region ("l2.<region>", hits/misses/evictions/size) plus
+///               loreweave.l2-cache.hit-ratio{region} at /actuator/metrics.
+///
+/// Updated By:   Capstone Team
+/// Update Notes: Hibernate now uses PutGuardedRegionFactory (JCache, plus query-result
+///               puts obey the Session's cache mode) instead of the plain "jcache" factory.
+/// ==========================================
+
+package com.loreweave.loreweave.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // Must match @Cache(region = ...) on User, Character and Story
+    static final String USER_REGION = "user";
+    static final String CHARACTER_REGION = "character";
+    static final String STORY_REGION = "story";
+
+    // Hibernate's default names for the query cache regions
+    static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            MeterRegistry meterRegistry,
+            @Value("${loreweave.l2-cache.user.max-size:10000}") long userMaxSize,
+            @Value("${loreweave.l2-cache.user.expire-after-write:30m}") Duration userTtl,
+            @Value("${loreweave.l2-cache.character.max-size:10000}") long characterMaxSize,
+            @Value("${loreweave.l2-cache.character.expire-after-write:30m}") Duration characterTtl,
+            @Value("${loreweave.l2-cache.story.max-size:5000}") long storyMaxSize,
+            @Value("${loreweave.l2-cache.story.expire-after-write:30m}") Duration storyTtl,
+            @Value("${loreweave.l2-cache.query.max-size:20000}") long queryMaxSize,
+            @Value("${loreweave.l2-cache.query.expire-after-write:10m}") Duration queryTtl) {
+        // The provider keeps one manager per URI; a URI per application context keeps two
+        // contexts in one JVM (tests) from colliding on region names
+        URI uri = URI.create("loreweave-hibernate-" + Integer.toHexString(System.identityHashCode(this)));
+        CacheManager cacheManager = Caching
+                .getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(uri, getClass().getClassLoader());
+
+        createRegion(cacheManager, meterRegistry, USER_REGION, userMaxSize, userTtl);
+        createRegion(cacheManager, meterRegistry, CHARACTER_REGION, characterMaxSize, characterTtl);
+        createRegion(cacheManager, meterRegistry, STORY_REGION, storyMaxSize, storyTtl);
+        createRegion(cacheManager, meterRegistry, QUERY_RESULTS_REGION, queryMaxSize, queryTtl);
+        // One entry per table; evicting one would let a stale query result be served
+        createRegion(cacheManager, meterRegistry, UPDATE_TIMESTAMPS_REGION, 0, Duration.ZERO);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, new PutGuardedRegionFactory());
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    /**
+     * Create one region. maxSize 0 / ttl zero mean unbounded / no expiry.
+     */
+    private static void createRegion(CacheManager cacheManager, MeterRegistry meterRegistry,
+                                     String region, long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+        // Hibernate stores immutable disassembled state; copying it on every get/put buys nothing
+        config.setStoreByValue(false);
+        config.setNativeStatisticsEnabled(true);
+        if (maxSize > 0) {
+            config.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (!ttl.isZero()) {
+            config.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        javax.cache.Cache<Object, Object> cache = cacheManager.createCache(region, config);
+
+        @SuppressWarnings("unchecked")
+        Cache<Object, Object> caffeine = cache.unwrap(Cache.class);
+        CaffeineCacheMetrics.monitor(meterRegistry, caffeine, "l2." + region);
+        Gauge.builder("loreweave.l2-cache.hit-ratio", caffeine, c -> c.stats().hitRate())
+                .description("Hibernate second-level cache hit ratio since startup")
+                .tag("region", region)
+                .register(meterRegistry);
+    }
+}
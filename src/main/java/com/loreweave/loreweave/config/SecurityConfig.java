@@ -36,9 +36,26 @@ package com.loreweave.loreweave.config;
    - Added permitAll() access for /verify-email endpoints.
    - Ensured that only users with enabled=true can authenticate
      (CustomUserDetailsService now enforces this automatically).
+ Updated By:   Capstone Team on 2026-10-18
+ Update Notes: Permit ASYNC dispatches so long-lived SSE responses
+               (/notifications/stream) are not re-authorised when they
+               complete; the initial request is still authenticated.
+ Updated By:   Capstone Team on 2026-10-18
+ Update Notes: Password hashing runs on a bounded pool (BoundedPasswordEncoder)
+               around a DelegatingPasswordEncoder ({bcrypt} at the configured
+               cost). Logins re-hash stored passwords whose format or cost is
+               out of date (CustomUserDetailsService.updatePassword).
+ Updated By:   Capstone Team on 2026-10-18
+ Update Notes: Uses BcryptDelegatingPasswordEncoder so unprefixed BCrypt hashes
+               at the configured cost are not re-hashed on first login.
  */
 
 
+import com.loreweave.loreweave.security.BcryptDelegatingPasswordEncoder;
+import com.loreweave.loreweave.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -50,6 +67,8 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import com.loreweave.loreweave.security.CustomUserDetailsService;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 
+import java.time.Duration;
+
 
 @Configuration
 @EnableWebSecurity
@@ -61,6 +80,7 @@ public class SecurityConfig {
         http
                 .authenticationProvider(authProvider)
                 .authorizeHttpRequests(auth -> auth
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/", "/welcome", "/api/auth/register", "/register", "/login", "/verify-email/**", "/test",
                                 "/css/**","/characters/**", "/js/**","/images/**", "/webjars/**", "/favicon.ico, "
                         ).permitAll()
@@ -92,9 +112,20 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Existing hashes carry no {id} prefix; they are BCrypt and are only re-hashed on login
+    // when their cost differs from bcrypt-strength
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${loreweave.password-hashing.bcrypt-strength:10}") int strength,
+            @Value("${loreweave.password-hashing.threads:0}") int threads,
+            @Value("${loreweave.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${loreweave.password-hashing.wait-timeout:5s}") Duration waitTimeout,
+            MeterRegistry meterRegistry) {
+        BcryptDelegatingPasswordEncoder delegating =
+                new BcryptDelegatingPasswordEncoder(new BCryptPasswordEncoder(strength));
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegating, poolSize, queueCapacity, waitTimeout, meterRegistry);
     }
 
     @Bean
@@ -103,6 +134,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(uds);
         provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(uds);
         return provider;
     }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+/// ==========================================
+/// File Name:    WebMvcConfig.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Spring MVC customisation: registers the @CurrentUser argument resolver.
+/// ==========================================
+
+package com.loreweave.loreweave.config;
+
+import com.loreweave.loreweave.security.CurrentUserArgumentResolver;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final CurrentUserArgumentResolver currentUserArgumentResolver;
+
+    public WebMvcConfig(CurrentUserArgumentResolver currentUserArgumentResolver) {
+        this.currentUserArgumentResolver = currentUserArgumentResolver;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver);
+    }
+}
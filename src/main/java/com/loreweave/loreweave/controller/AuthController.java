@@ -25,11 +25,15 @@
 /// Updated By:   Chris Ennis
 /// Updated On:   2025-11-08
 /// Update Notes: Added logging for registration attempts.
+/// Updated By:   Capstone Team on 2026-10-18
+/// Update Notes: Registration shows a retry message when the password-hashing pool is saturated.
+///               OTP resends that are throttled show a wait message instead of claiming success.
 /// ==========================================
 package com.loreweave.loreweave.controller;
 
 import com.loreweave.loreweave.model.User;
 import com.loreweave.loreweave.repository.UserRepository;
+import com.loreweave.loreweave.security.PasswordHashingBusyException;
 import com.loreweave.loreweave.service.EmailOtpService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -84,13 +88,23 @@ public class AuthController {
             }
 
             // Case 2: User exists but not yet verified → resend OTP
-            emailOtpService.sendOtp(existingUser.getEmail());
+            model.addAttribute("email", existingUser.getEmail());
+            if (!emailOtpService.sendOtp(existingUser.getEmail())) {
+                model.addAttribute("error", "Too many verification codes requested. Please wait a minute and try again.");
+                return "verify-email";
+            }
             model.addAttribute("message", "Verification email resent! Please check your inbox.");
             return "verify-email";
         }
 
         // Step 2: Register new user (disabled until verified)
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        try {
+            user.setPassword(passwordEncoder.encode(user.getPassword()));
+        } catch (PasswordHashingBusyException ex) {
+            user.setPassword(null);
+            model.addAttribute("error", "We're handling a lot of sign-ups right now. Please try again in a moment.");
+            return "register";
+        }
         user.setEnabled(false);
         userRepository.save(user);
 
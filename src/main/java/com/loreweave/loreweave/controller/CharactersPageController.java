@@ -23,6 +23,14 @@
 /// ///                 • Added controller attributes:
 /// ///                       currentUserCharacter
 /// ///                       otherCharacters
+/// Updated By:    Capstone Team
+/// Update Notes:  Removed per-request lore point recalculation; Character.lorePoints is the
+///                maintained value (see LorePointReconciliationJob for drift checks).
+///                Logged-in user comes from @CurrentUser (the listing uses the character
+///                loaded with the user; the new-character checks use the session-cached ids).
+///                The cached ids are invalidated once a character is created.
+///                createCharacter also links the character from user.character_id, in one
+///                transaction with the insert.
 /// ==========================================
 package com.loreweave.loreweave.controller;
 
@@ -33,10 +41,13 @@ import com.loreweave.loreweave.model.User;
 import com.loreweave.loreweave.repository.CharacterRepository;
 import com.loreweave.loreweave.repository.StoryRepository;
 import com.loreweave.loreweave.repository.UserRepository;
+import com.loreweave.loreweave.security.CurrentUser;
+import com.loreweave.loreweave.security.CurrentUserRef;
+import com.loreweave.loreweave.security.CurrentUserResolver;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.stereotype.Controller;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
@@ -51,37 +62,29 @@ public class CharactersPageController {
     private final CharacterRepository characterRepository;
     private final UserRepository userRepository;
     private final StoryRepository storyRepository;
+    private final CurrentUserResolver currentUserResolver;
 
     public CharactersPageController(CharacterRepository characterRepository,
                                     UserRepository userRepository,
-                                    StoryRepository storyRepository) {
+                                    StoryRepository storyRepository,
+                                    CurrentUserResolver currentUserResolver) {
         this.characterRepository = characterRepository;
         this.userRepository = userRepository;
         this.storyRepository = storyRepository;
+        this.currentUserResolver = currentUserResolver;
     }
 
     // ==========================================
     // CHARACTER LISTING PAGE
     // ==========================================
     @GetMapping("/characters")
-    public String characters(Authentication auth, Model model) {
+    public String characters(@CurrentUser User user, Model model) {
 
-        // Get logged-in user
-        String username = auth != null ? auth.getName() : null;
-        User user = username != null
-                ? userRepository.findByUsername(username).orElse(null)
-                : null;
+        // Logged-in user's character (or null), loaded together with the user
+        Character currentUserCharacter = (user != null) ? user.getCharacter() : null;
 
-        // Get user's character (or null)
-        Character currentUserCharacter = (user != null)
-                ? characterRepository.findByUser(user).orElse(null)
-                : null;
-
-        // Fetch ALL characters + recalc lore points
+        // Fetch ALL characters; lorePoints is kept current by each vote (no recalculation)
         var allCharacters = characterRepository.findAll();
-        for (var ch : allCharacters) {
-            ch.setLorePoints(characterRepository.sumVotesForCharacter(ch.getId()));
-        }
 
         // Filter out user's character from "other" list
         List<Character> otherCharacters = allCharacters.stream()
@@ -101,10 +104,8 @@ public class CharactersPageController {
     @GetMapping("/characters/{id}")
     public String character(@PathVariable("id") Long id, Model model) {
 
-        // Fetch character and recalc lore points
+        // Fetch character (lorePoints is maintained incrementally by VoteController)
         var ch = characterRepository.findById(id).orElseThrow();
-        int pts = characterRepository.sumVotesForCharacter(ch.getId());
-        ch.setLorePoints(pts);
         model.addAttribute("character", ch);
 
         // Default empty lists
@@ -128,21 +129,17 @@ public class CharactersPageController {
     // NEW CHARACTER FORM (GET)
     // ==========================================
     @GetMapping("/characters/new")
-    public String newCharacter(Authentication auth, Model model, RedirectAttributes ra) {
-
-        // Resolve user
-        String username = ((UserDetails) auth.getPrincipal()).getUsername();
-        User owner = userRepository.findByUsername(username).orElse(null);
+    public String newCharacter(@CurrentUser CurrentUserRef current, Model model, RedirectAttributes ra) {
 
         // Enforce 1 character per user
-        if (characterRepository.findByUser(owner).isPresent()) {
+        if (current.hasCharacter()) {
             ra.addFlashAttribute("warning", "Only one character per user.");
             return "redirect:/characters";
         }
 
         // Provide blank character for form
         if (!model.containsAttribute("character")) {
-            model.addAttribute("character", new Character("", "", 0, owner));
+            model.addAttribute("character", new Character("", "", 0, userRepository.getReferenceById(current.userId())));
         }
 
         return "character-new";
@@ -152,16 +149,14 @@ public class CharactersPageController {
     // NEW CHARACTER SUBMISSION (POST)
     // ==========================================
     @PostMapping("/characters/new")
+    @Transactional
     public String createCharacter(@RequestParam("name") String name,
                                   @RequestParam("discription") String description,
-                                  Authentication auth,
+                                  @CurrentUser User owner,
+                                  HttpServletRequest request,
                                   RedirectAttributes ra) {
 
-        // Resolve user
-        String username = ((UserDetails) auth.getPrincipal()).getUsername();
-        User owner = userRepository.findByUsername(username).orElse(null);
-
-        // Enforce 1 character per user
+        // Enforce 1 character per user (checked against the database, not the cached ids)
         if (characterRepository.findByUser(owner).isPresent()) {
             ra.addFlashAttribute("warning", "You already have a character. Only one per user.");
             return "redirect:/characters";
@@ -171,6 +166,13 @@ public class CharactersPageController {
         Character character = new Character(name.trim(), description.trim(), 0, owner);
         Character saved = characterRepository.save(character);
 
+        // Link it from the user row too (user.character_id), through the entity so only
+        // this user's second-level cache entry changes
+        userRepository.findById(owner.getId()).ifPresent(user -> user.setCharacter(saved));
+
+        // The cached ids still say "no character"
+        currentUserResolver.invalidate(request);
+
         ra.addFlashAttribute("success", "Character created!");
         return "redirect:/characters/" + saved.getId();
     }
@@ -7,12 +7,16 @@ package com.loreweave.loreweave.controller;
 /// Purpose:      Handles sending and verifying email OTP codes.
 /// Updated By:  Jamie Coker on 10/27/2025
 ///   Update Notes: Handles OTP validation and updates user to enabled.
+/// Updated By:  Capstone Team on 2026-10-18
+///   Update Notes: Evicts the user from UserDetailsCache once verified.
+///                 Throttled OTP resends show a wait message.
 /// ==========================================
 
 
 
 import com.loreweave.loreweave.model.User;
 import com.loreweave.loreweave.repository.UserRepository;
+import com.loreweave.loreweave.security.UserDetailsCache;
 import com.loreweave.loreweave.service.EmailOtpService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -24,11 +28,14 @@ public class EmailVerificationController {
 
     private final EmailOtpService emailOtpService;
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
 
     @Autowired
-    public EmailVerificationController(EmailOtpService emailOtpService, UserRepository userRepository) {
+    public EmailVerificationController(EmailOtpService emailOtpService, UserRepository userRepository,
+                                       UserDetailsCache userDetailsCache) {
         this.emailOtpService = emailOtpService;
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
     }
 
     /**
@@ -45,15 +52,21 @@ public class EmailVerificationController {
 
         // If user exists but is not verified, allow resending OTP
         if (existingUser != null && !existingUser.isEnabled()) {
-            emailOtpService.sendOtp(email);
             model.addAttribute("email", email);
+            if (!emailOtpService.sendOtp(email)) {
+                model.addAttribute("error", "Too many verification codes requested. Please wait a minute and try again.");
+                return "verify-email";
+            }
             model.addAttribute("message", "Verification code resent! Check your email.");
             return "verify-email";
         }
 
         // If it's a brand-new email, send OTP
-        emailOtpService.sendOtp(email);
         model.addAttribute("email", email);
+        if (!emailOtpService.sendOtp(email)) {
+            model.addAttribute("error", "Too many verification codes requested. Please wait a minute and try again.");
+            return "verify-email";
+        }
         model.addAttribute("message", "Verification code sent! Please check your email.");
         return "verify-email";
     }
@@ -78,6 +91,7 @@ public class EmailVerificationController {
             if (user != null) {
                 user.setEnabled(true);
                 userRepository.save(user);
+                userDetailsCache.removeUserFromCache(user.getUsername());
             }
             model.addAttribute("message", "Email verified successfully! You can now log in.");
             return "login";
@@ -0,0 +1,72 @@
+/// ==========================================
+/// File Name:    MessagesApiController.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      JSON endpoint for paging back through a conversation thread
+///               ("load older" on /messages/{username}). Uses the same keyset
+///               cursor as the page, so each request reads one bounded page.
+///  Updated By:  Capstone Team
+///  Update Notes: Logged-in user comes from @CurrentUser.
+///                Added POST /api/messages/{username}/read, sent by the page once an
+///                open thread is shown, so the thread GET itself never writes.
+/// ==========================================
+package com.loreweave.loreweave.controller;
+
+import com.loreweave.loreweave.dto.message.ThreadPage;
+import com.loreweave.loreweave.model.User;
+import com.loreweave.loreweave.security.CurrentUser;
+import com.loreweave.loreweave.service.ConversationService;
+import com.loreweave.loreweave.service.UnreadMessageCountCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/messages")
+public class MessagesApiController {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    private final ConversationService conversationService;
+    private final UnreadMessageCountCache unreadMessageCountCache;
+
+    public MessagesApiController(ConversationService conversationService,
+                                 UnreadMessageCountCache unreadMessageCountCache) {
+        this.conversationService = conversationService;
+        this.unreadMessageCountCache = unreadMessageCountCache;
+    }
+
+    // GET /api/messages/{username}?before=...&size=...
+    // Returns { messages: [...oldest first], olderCursor: "..." | null }
+    @GetMapping("/{username}")
+    public ResponseEntity<ThreadPage> thread(
+            @PathVariable("username") String username,
+            @RequestParam(value = "before", required = false) String before,
+            @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+            @CurrentUser User current) {
+
+        if (current == null) {
+            throw new IllegalStateException("Logged-in user not found");
+        }
+        try {
+            return ResponseEntity.ok(conversationService.getThreadPage(current, username, before, size));
+        } catch (IllegalArgumentException ex) {
+            // Malformed cursor token
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // POST /api/messages/{username}/read
+    // Marks the thread read up to its latest message; returns { unreadMessageCount: n } for the badge
+    @PostMapping("/{username}/read")
+    public ResponseEntity<Map<String, Long>> markRead(@PathVariable("username") String username,
+                                                     @CurrentUser User current) {
+        if (current == null) {
+            throw new IllegalStateException("Logged-in user not found");
+        }
+        conversationService.markRead(current, username);
+        // The cache was adjusted when markRead committed
+        return ResponseEntity.ok(Map.of("unreadMessageCount", unreadMessageCountCache.get(current.getUsername())));
+    }
+}
@@ -14,6 +14,13 @@
 ///       Updated By: Wyatt Bechtle
 ///   Update Details: Added a link to messages in the notification so users can
 ///                   open the messages UI from the notification.
+///
+///       Updated By: Capstone Team
+///   Update Details: Private messages are pushed through NotificationPushService so they
+///                   reach both WebSocket and SSE (/notifications/stream) subscribers.
+///                   Private messages are stored through ConversationService (own
+///                   conversation/private_message tables) instead of as Notification rows,
+///                   and pushed to /user/queue/messages.
 /// ==========================================
 
 package com.loreweave.loreweave.controller;
@@ -21,8 +28,11 @@ package com.loreweave.loreweave.controller;
 import com.loreweave.loreweave.dto.ws.ChatMessageDto;
 import com.loreweave.loreweave.dto.ws.NotificationView;
 import com.loreweave.loreweave.model.Notification;
+import com.loreweave.loreweave.model.PrivateMessage;
 import com.loreweave.loreweave.model.User;
 import com.loreweave.loreweave.repository.UserRepository;
+import com.loreweave.loreweave.service.ConversationService;
+import com.loreweave.loreweave.service.NotificationPushService;
 import com.loreweave.loreweave.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -44,11 +54,17 @@ public class MessagesController {
 
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final NotificationPushService notificationPushService;
+    private final ConversationService conversationService;
 
     public MessagesController(NotificationService notificationService,
+                              NotificationPushService notificationPushService,
+                              ConversationService conversationService,
                               SimpMessagingTemplate simpMessagingTemplate,
                               UserRepository userRepository) {
         this.notificationService = notificationService;
+        this.notificationPushService = notificationPushService;
+        this.conversationService = conversationService;
         this.simpMessagingTemplate = simpMessagingTemplate;
         this.userRepository = userRepository;
     }
@@ -70,9 +86,9 @@ public class MessagesController {
 
     // --- WebSocket: send private message ---
     // Client sends to /app/private with { to: "username", text: "..." }
-    // Server sends to /user/{username}/queue/notifications
+    // Server sends to /user/{username}/queue/messages (and the recipient's SSE stream)
     // Requires authentication
-    // Saves notification to DB
+    // Saves the message to the recipient's conversation (not as a notification)
     // The 'to' field must be a valid username
     // The 'from' field is set to the authenticated user's username
     @MessageMapping("/private")
@@ -89,16 +105,12 @@ public class MessagesController {
         User recipient = userRepository.findByUsername(dto.to())
             .orElseThrow(() -> new IllegalArgumentException("Recipient not found: " + dto.to()));
 
-        // Create and save notification to db, attach a link to `/messages` so the recipient can
-        // open the messages UI from the notification
-        Notification saved = notificationService.createNotification(
-            new Notification(recipient, sender, dto.text(), "/messages")
-        );
+        // Append to the sender/recipient conversation
+        PrivateMessage saved = conversationService.sendMessage(sender, recipient, dto.text());
 
-        // Send notification to recipient
-        simpMessagingTemplate.convertAndSendToUser(
+        // Send message to recipient (WebSocket queue and SSE stream)
+        notificationPushService.pushMessage(
             recipient.getUsername(),
-            "/queue/notifications",
             new NotificationView(saved.getMessage(), sender.getUsername(), saved.getCreatedAt().toString())
         );
     }
@@ -21,242 +21,78 @@ package com.loreweave.loreweave.controller;
 ///                 handling in the view.
 ///                 Enables user to see messages organized by senders, and when 
 ///                 clicked, displays the thread.
+///
+///  Updated By:    Capstone Team
+///  Update Notes:  Conversations and threads now come from ConversationService (indexed,
+///                 per-user grouped queries) instead of notificationRepository.findAll()
+///                 plus a full re-scan per conversation. Conversations are sorted by
+///                 their latest message, newest first.
+///                 A thread opens on its latest 50 messages; older ones load by keyset
+///                 cursor through MessagesApiController.
+///                 Conversations/threads now read the dedicated conversation store; opening
+///                 a thread marks it read (one conversation row update).
+///                 Logged-in user comes from @CurrentUser (one lookup per request).
+///                 Opening a thread no longer marks it read on the GET; the page posts to
+///                 /api/messages/{username}/read once the thread is shown and has unread messages.
+///                 The handlers are no longer @Transactional(readOnly = true). They only pass
+///                 projections through, and the read-only transaction boundary is now
+///                 ConversationService (listConversations, getThreadPage).
 /// ==========================================
 
-import com.loreweave.loreweave.model.Notification;
+import com.loreweave.loreweave.dto.message.ConversationView;
+import com.loreweave.loreweave.dto.message.ThreadPage;
 import com.loreweave.loreweave.model.User;
-import com.loreweave.loreweave.repository.UserRepository;
-import com.loreweave.loreweave.repository.NotificationRepository;
-import org.springframework.security.core.Authentication;
+import com.loreweave.loreweave.security.CurrentUser;
+import com.loreweave.loreweave.service.ConversationService;
 import org.springframework.stereotype.Controller;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @Controller
 public class MessagesPageController {
 
-    private final UserRepository userRepository;
-    private final NotificationRepository notificationRepository;
+    // Messages rendered when a thread is opened; "Load older" fetches more
+    private static final int THREAD_PAGE_SIZE = 50;
+
+    private final ConversationService conversationService;
 
-    public MessagesPageController(UserRepository userRepository,
-                                  NotificationRepository notificationRepository) {
-        this.userRepository = userRepository;
-        this.notificationRepository = notificationRepository;
+    public MessagesPageController(ConversationService conversationService) {
+        this.conversationService = conversationService;
     }
     // Display the messages page
-    // Added Transactional for readOnly to avoid lazy loading issues that occurred
     @GetMapping("/messages")
-    @Transactional(readOnly = true)
-    public String messages(Authentication auth, Model model) {
-
-        // Fetch the logged-in user
-        User current = userRepository.findByUsername(auth.getName())
-                .orElseThrow(() -> new IllegalStateException("Logged-in user not found"));
-
-        // Build conversation list with unique partner usernames from all notifications
-
-        // Get all notifications (List)
-        var all = notificationRepository.findAll();
-
-        // Initialize conversation map (LinkedHashMap to preserve order)
-        // LinkedHashMap: key = partner username, value = Map with conversation details
-        var convMap = new java.util.LinkedHashMap<String, java.util.Map<String, Object>>();
-
-        // Populate conversation map
-        for (var n : all) {
-
-            // Partner is sender when current is recipient
-            if (n.getUser() != null && n.getUser().getId().equals(current.getId())) {
-
-                // Get sender info
-                var sender = n.getSender();
-
-                // Add to conv map
-                if (sender != null) {
-
-                    // Get sender username
-                    var uname = sender.getUsername();
-
-                    // compute if absent, to avoid overwriting existing entries
-                    // Map entry structure:
-                    // "id": partner username
-                    // "otherPartyUsername": partner username
-                    // "lastMessageAt": timestamp of latest message in this conversation
-                    // "unreadCount": initialized to 0, will be updated later
-                    convMap.computeIfAbsent(uname, k -> java.util.Map.of(
-                            "id", uname,
-                            "otherPartyUsername", uname,
-                            "lastMessageAt", n.getCreatedAt(),
-                            "unreadCount", 0
-                    ));
-                }
-            }
-            // Partner is recipient when current is sender
-            if (n.getSender() != null && n.getSender().getId().equals(current.getId())) {
-
-                // Get recipient info
-                var recip = n.getUser();
-
-                // Add to conv map
-                if (recip != null) {
-
-                    // Get recipient username
-                    var uname = recip.getUsername();
-
-                    // Compute if absent, to avoid overwriting existing entries
-                    // Map entry structure:
-                    // "id": partner username
-                    // "otherPartyUsername": partner username
-                    // "lastMessageAt": timestamp of latest message in this conversation
-                    // "unreadCount": initialized to 0, will be updated later
-                    convMap.computeIfAbsent(uname, k -> java.util.Map.of(
-                            "id", uname,
-                            "otherPartyUsername", uname,
-                            "lastMessageAt", n.getCreatedAt(),
-                            "unreadCount", 0
-                    ));
-                }
-            }
+    public String messages(@CurrentUser User current, Model model) {
+        if (current == null) {
+            throw new IllegalStateException("Logged-in user not found");
         }
-        // Compute unread counts per partner, current is recipient and isRead==false
-        for (var key : convMap.keySet()) {
-
-            // Count unread messages from this partner
-            long unreadCount = all.stream()   // stream of all notifications
-                    .filter(x -> x.getUser() != null && x.getUser().getId().equals(current.getId())) // current is recipient
-                    .filter(x -> x.getSender() != null && key.equals(x.getSender().getUsername()))   // from this partner
-                    .filter(x -> !x.isRead()) // unread only
-                    .count();
-
-            // Update conv map entry
-            // Replace with updated map including unread count, other fields remain the same
-
-            // Get old entry
-            var old = convMap.get(key);
 
-            // Create updated entry
-            var updated = java.util.Map.of(
-                    "id", old.get("id"),
-                    "otherPartyUsername", old.get("otherPartyUsername"),
-                    "lastMessageAt", old.get("lastMessageAt"),
-                    "unreadCount", unreadCount
-            );
-            convMap.put(key, updated);
-        }
-        // Add to model and render
-        model.addAttribute("conversations", convMap.values());
+        // Conversation list: partner username, latest message time and unread count (projections only)
+        model.addAttribute("conversations", conversationService.listConversations(current));
         model.addAttribute("activeConversation", null);
         model.addAttribute("messages", java.util.Collections.emptyList());
         return "messages";
     }
     // View a specific conversation by partner username
-    // Added Transactional for readOnly to avoid lazy loading issues that occurred
     @GetMapping("/messages/{id}")
-    @Transactional(readOnly = true)
-    public String viewConversation(@PathVariable("id") String id, Authentication auth, Model model) {
-
-        // Fetch the logged-in user
-        User current = userRepository.findByUsername(auth.getName())
-                .orElseThrow(() -> new IllegalStateException("Logged-in user not found"));
-
-        // Build conversation list with unique partner usernames from all notifications
-        
-        // Get all notifications (List)
-        var all = notificationRepository.findAll();
-
-        // Initialize conversation map (LinkedHashMap to preserve order)
-        // LinkedHashMap: key = partner username, value = Map with conversation details
-        var convMap = new java.util.LinkedHashMap<String, java.util.Map<String, Object>>();
-        
-        // Populate conversation map and build thread with specified partner (List)
-        java.util.List<Notification> thread = new java.util.ArrayList<>();
-
-        for (var n : all) {
-
-            // Partner is sender when current is recipient
-            if (n.getUser() != null && n.getUser().getId().equals(current.getId())) {
-
-                // Get sender info
-                var sender = n.getSender();
-
-                // Add to conv map
-                if (sender != null) {
-
-                    // Get sender username
-                    var uname = sender.getUsername();
-
-                    // Compute if absent, to avoid overwriting existing entries
-                    // Map entry structure:
-                    // "id": partner username
-                    // "otherPartyUsername": partner username
-                    // "lastMessageAt": timestamp of latest message in this conversation
-                    // "unreadCount": initialized to 0, will be updated later
-                    convMap.computeIfAbsent(uname, k -> java.util.Map.of(
-                            "id", uname,
-                            "otherPartyUsername", uname,
-                            "lastMessageAt", n.getCreatedAt(),
-                            "unreadCount", 0
-                    ));
-                    // add to thread if matches requested id
-                    if (uname.equals(id)) thread.add(n);
-                }
-            }
-            // Partner is recipient when current is sender
-            if (n.getSender() != null && n.getSender().getId().equals(current.getId())) {
-
-                // Get recipient info
-                var recip = n.getUser();
-
-                // Add to conv map
-                if (recip != null) {
-
-                    // Get recipient username
-                    var uname = recip.getUsername();
-
-                    // Compute if absent, to avoid overwriting existing entries
-                    convMap.computeIfAbsent(uname, k -> java.util.Map.of(
-                            "id", uname,
-                            "otherPartyUsername", uname,
-                            "lastMessageAt", n.getCreatedAt(),
-                            "unreadCount", 0
-                    ));
-                    // Add to thread if matches requested id
-                    if (uname.equals(id)) thread.add(n);
-                }
-            }
+    public String viewConversation(@PathVariable("id") String id, @CurrentUser User current, Model model) {
+        if (current == null) {
+            throw new IllegalStateException("Logged-in user not found");
         }
-        // Update unread counts per partner, current is recipient and isRead==false
-        for (var key : convMap.keySet()) {
-            long unreadCount = all.stream()   // Stream of all notifications
-                    .filter(x -> x.getUser() != null && x.getUser().getId().equals(current.getId())) // Current is recipient
-                    .filter(x -> x.getSender() != null && key.equals(x.getSender().getUsername()))   // From this partner
-                    .filter(x -> !x.isRead()) // Unread only
-                    .count();
-
-            // Update conv map entry
-            // Replace with updated map including unread count, other fields remain the same
-
-            // Get old entry
-            var old = convMap.get(key);
-
-            // Create updated entry
-            var updated = java.util.Map.of(
-                    "id", old.get("id"),
-                    "otherPartyUsername", old.get("otherPartyUsername"),
-                    "lastMessageAt", old.get("lastMessageAt"),
-                    "unreadCount", unreadCount
-            );
-            convMap.put(key, updated);
-        }
-
-        // Sort thread by createdAt
-        thread.sort(java.util.Comparator.comparing(Notification::getCreatedAt));
 
-        // Add to model and render
-        model.addAttribute("conversations", convMap.values());
-        model.addAttribute("activeConversation", java.util.Map.of("id", id, "otherPartyUsername", id));
-        model.addAttribute("messages", thread);
+        // Conversation list plus the latest page of the thread (older pages via /api/messages).
+        // Read-only: the page marks the thread read with a POST once it is shown
+        ThreadPage thread = conversationService.getThreadPage(current, id, null, THREAD_PAGE_SIZE);
+        List<ConversationView> conversations = conversationService.listConversations(current);
+        long unread = conversations.stream()
+                .filter(c -> c.id().equals(id))
+                .mapToLong(ConversationView::unreadCount)
+                .sum();
+        model.addAttribute("conversations", conversations);
+        model.addAttribute("activeConversation", java.util.Map.of("id", id, "otherPartyUsername", id, "unreadCount", unread));
+        model.addAttribute("messages", thread.messages());
+        model.addAttribute("olderCursor", thread.olderCursor());
         return "messages";
     }
 }
@@ -7,46 +7,92 @@
 /// Update History:
 ///   Updated By:   Wyatt Bechtle
 ///   Update Notes: Added controller and handlers to support client dropdown UI.
+///
+///   Updated By:   Capstone Team
+///   Update Notes: Read/mark-all-read keep UnreadCountCache in step (decrement after commit).
+///
+///   Updated By:   Capstone Team
+///   Update Notes: Added GET /notifications/stream (Server-Sent Events). New notifications
+///                 arrive as deltas; reconnects resume from the Last-Event-ID header.
+///
+///   Updated By:   Capstone Team
+///   Update Notes: Added POST /notifications/mark-read for a list of ids (one ownership-checked
+///                 UPDATE). Single read/view and mark-all-read are now conditional UPDATEs keyed
+///                 by username instead of findById + user lookup + save.
+///
+///   Updated By:   Capstone Team
+///   Update Notes: /notifications/unread takes the user from @CurrentUser.
+///                 It also returns updatedAt, the time of a coalesced notification's latest event.
+///
+///   Updated By:   Capstone Team
+///   Update Notes: /notifications/{id}/read is now a POST. As a GET it changed state without a
+///                 CSRF check, and link prefetchers could mark notifications read.
 /// ==========================================
 package com.loreweave.loreweave.controller;
 
 import com.loreweave.loreweave.model.Notification;
 import com.loreweave.loreweave.model.User;
 import com.loreweave.loreweave.repository.NotificationRepository;
-import com.loreweave.loreweave.repository.UserRepository;
+import com.loreweave.loreweave.security.CurrentUser;
+import com.loreweave.loreweave.service.NotificationStreamService;
+import com.loreweave.loreweave.service.UnreadCountCache;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.security.core.Authentication;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Controller
 public class NotificationsController {
 
+    // Upper bound on ids accepted by one /notifications/mark-read call
+    static final int MAX_MARK_READ_BATCH = 500;
+
     private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
+    private final UnreadCountCache unreadCountCache;
+    private final NotificationStreamService notificationStreamService;
 
     public NotificationsController(NotificationRepository notificationRepository,
-                                   UserRepository userRepository) {
+                                   UnreadCountCache unreadCountCache,
+                                   NotificationStreamService notificationStreamService) {
         this.notificationRepository = notificationRepository;
-        this.userRepository = userRepository;
+        this.unreadCountCache = unreadCountCache;
+        this.notificationStreamService = notificationStreamService;
+    }
+
+    // Live notification stream for the navbar. The browser's EventSource reconnects on its own
+    // and sends the last id it saw, so only the unread notifications it missed are replayed.
+    @GetMapping(value = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                             Authentication auth) {
+        Long resumeAfter = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                resumeAfter = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException ignored) {
+                // Unknown id: start a fresh stream
+            }
+        }
+        return notificationStreamService.subscribe(auth.getName(), resumeAfter);
     }
 
     // Return unread notifications for the authenticated user as JSON
     @GetMapping("/notifications/unread")
     @ResponseBody
     @Transactional(readOnly = true)
-    public List<Map<String,Object>> unread(Authentication auth) {
+    public List<Map<String,Object>> unread(@CurrentUser User current) {
 
         // If there's no authentication, return an empty list (client will show no unread items)
-        if (auth == null || auth.getName() == null) return List.of();
-
-        // Resolve the current user entity
-        User current = userRepository.findByUsername(auth.getName()).orElseThrow();
+        if (current == null) return List.of();
 
         // Query unread notifications (readOnly transactional to avoid lazy-init problems when serializing)
         List<Notification> unread = notificationRepository.findByUserAndIsRead(current, false);
@@ -59,52 +105,68 @@ public class NotificationsController {
             m.put("link", n.getLink());
             m.put("from", n.getSender() != null ? n.getSender().getUsername() : null);
             m.put("createdAt", n.getCreatedAt().toString());
+            m.put("updatedAt", n.getUpdatedAt().toString());
             return m;
         }).collect(Collectors.toList());
     }
 
-    // Mark a notification as read 
-    @GetMapping("/notifications/{id}/read")
+    // Mark a single notification as read (POST so it is CSRF-checked and never fired by a
+    // prefetch or a crawled link; the navbar uses the batched /notifications/mark-read)
+    @PostMapping("/notifications/{id}/read")
     @Transactional
     public ResponseEntity<Void> markRead(@PathVariable("id") Long id, Authentication auth) {
 
-        // Find the notification and guard that the authenticated user is the recipient before mutating
-        var notifOpt = notificationRepository.findById(id);
-        if (notifOpt.isEmpty()) return ResponseEntity.notFound().build();
-        Notification n = notifOpt.get();
-
-        // ensure current user is recipient
         if (auth == null || auth.getName() == null) return ResponseEntity.status(403).build();
-        User current = userRepository.findByUsername(auth.getName()).orElseThrow();
-        if (n.getUser() == null || !n.getUser().getId().equals(current.getId())) return ResponseEntity.status(403).build();
 
-        // Mark and persist the single notification
-        n.setRead(true);
-        notificationRepository.save(n);
+        // One conditional UPDATE: only the recipient's own unread row matches
+        if (notificationRepository.markReadForUser(id, auth.getName()) == 1) {
+            unreadCountCache.decrement(auth.getName(), 1);
+            return ResponseEntity.ok().build();
+        }
+
+        // Nothing changed: missing, someone else's, or already read
+        var recipient = notificationRepository.findRecipientUsername(id);
+        if (recipient.isEmpty()) return ResponseEntity.notFound().build();
+        if (!recipient.get().equals(auth.getName())) return ResponseEntity.status(403).build();
         return ResponseEntity.ok().build();
     }
 
+    // Mark a batch of notifications as read; body is a JSON array of ids.
+    // Ids that are missing, already read or belong to someone else are skipped.
+    @PostMapping("/notifications/mark-read")
+    @ResponseBody
+    @Transactional
+    public ResponseEntity<Map<String, Integer>> markReadBatch(@RequestBody List<Long> ids, Authentication auth) {
+
+        if (auth == null || auth.getName() == null) return ResponseEntity.status(403).build();
+        if (ids == null || ids.isEmpty()) return ResponseEntity.ok(Map.of("marked", 0));
+        if (ids.size() > MAX_MARK_READ_BATCH) return ResponseEntity.badRequest().build();
+
+        Set<Long> distinct = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (distinct.isEmpty()) return ResponseEntity.ok(Map.of("marked", 0));
+        int marked = notificationRepository.markReadForUser(distinct, auth.getName());
+        unreadCountCache.decrement(auth.getName(), marked);
+        return ResponseEntity.ok(Map.of("marked", marked));
+    }
+
     // View a notification: mark read and redirect to its link (or to /messages)
     @GetMapping("/notifications/{id}/view")
     @Transactional
     public String viewNotification(@PathVariable("id") Long id, Authentication auth) {
 
-        // Mark the notification read and redirect the user to the notification's link.
-        var notifOpt = notificationRepository.findById(id);
-        if (notifOpt.isEmpty()) return "redirect:/messages";
-        Notification n = notifOpt.get();
         if (auth == null || auth.getName() == null) return "redirect:/login";
-        User current = userRepository.findByUsername(auth.getName()).orElseThrow();
 
-        // Ensure only the recipient can view/activate the notification
-        if (n.getUser() == null || !n.getUser().getId().equals(current.getId())) return "redirect:/messages";
-        n.setRead(true);
-        notificationRepository.save(n);
+        // Only the recipient can view/activate the notification
+        var link = notificationRepository.findLinkForUser(id, auth.getName());
+        if (link.isEmpty()) return "redirect:/messages";
+
+        if (notificationRepository.markReadForUser(id, auth.getName()) == 1) {
+            unreadCountCache.decrement(auth.getName(), 1);
+        }
 
         // Redirect to the stored link if present, otherwise to a sane fallback
-        String link = n.getLink();
-        if (link == null || link.isBlank()) return "redirect:/messages";
-        return "redirect:" + link;
+        if (link.get().isBlank()) return "redirect:/messages";
+        return "redirect:" + link.get();
     }
 
     // Mark all unread notifications for the authenticated user as read
@@ -114,10 +176,10 @@ public class NotificationsController {
 
         // Guard for authenticated users only
         if (auth == null || auth.getName() == null) return ResponseEntity.status(403).build();
-        User current = userRepository.findByUsername(auth.getName()).orElseThrow();
 
         // Use a single bulk update query to mark unread notifications as read for the current user
-        notificationRepository.markAllReadByUser(current);
+        int marked = notificationRepository.markAllReadForUser(auth.getName());
+        unreadCountCache.decrement(auth.getName(), marked);
         return ResponseEntity.ok().build();
     }
 }
@@ -8,6 +8,14 @@
 ///  Updated By: Wyatt Bechtle
 ///  Update Notes: Added functionality to calculate and display
 ///                lore points based on character votes.
+///
+///  Updated By: Capstone Team
+///  Update Notes: Lore points are read from Character.lorePoints instead of being
+///                recalculated from votes on every profile view.
+///                The logged-in user comes from @CurrentUser (one lookup per request) and
+///                the cached copy is invalidated after a profile edit.
+///                A profile edit also evicts the login cache (UserDetailsCache) for the
+///                old and new username, since the password or username may have changed.
 ///  
 /// ==========================================
 package com.loreweave.loreweave.controller;
@@ -16,10 +24,11 @@ import com.loreweave.loreweave.model.User;
 import com.loreweave.loreweave.model.Character;
 import com.loreweave.loreweave.model.Story;
 import com.loreweave.loreweave.repository.UserRepository;
-import com.loreweave.loreweave.repository.CharacterRepository;
 import com.loreweave.loreweave.repository.StoryRepository;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.loreweave.loreweave.security.CurrentUser;
+import com.loreweave.loreweave.security.CurrentUserResolver;
+import com.loreweave.loreweave.security.UserDetailsCache;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -32,39 +41,31 @@ import java.util.List;
 public class ProfilePageController {
 
     private final UserRepository userRepository;
-    private final CharacterRepository characterRepository;
     private final StoryRepository storyRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CurrentUserResolver currentUserResolver;
+    private final UserDetailsCache userDetailsCache;
 
     public ProfilePageController(UserRepository userRepository,
-                             CharacterRepository characterRepository,
                              StoryRepository storyRepository,
-                             PasswordEncoder passwordEncoder) {
+                             PasswordEncoder passwordEncoder,
+                             CurrentUserResolver currentUserResolver,
+                             UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
-        this.characterRepository = characterRepository;
         this.storyRepository = storyRepository;
         this.passwordEncoder = passwordEncoder;
-    }
-    // Helper method to get the currently authenticated user
-    private User currentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth != null ? auth.getName() : null;
-        return userRepository.findByUsername(username).orElseThrow();
+        this.currentUserResolver = currentUserResolver;
+        this.userDetailsCache = userDetailsCache;
     }
     // Display user profile page
     @GetMapping("/profile")
-    public String profile(Model model) {
+    public String profile(@CurrentUser User user, Model model) {
 
-        // Get current user
-        User user = currentUser();
+        // Current user (resolved once per request)
         model.addAttribute("user", user);
 
-        // Get user's character and calculate lore points
-        Character character = characterRepository.findByUser(user).orElse(null);
-        if (character != null) {
-            int pts = characterRepository.sumVotesForCharacter(character.getId());
-            character.setLorePoints(pts);            
-        }
+        // User's character, loaded with the user (lorePoints is maintained incrementally by each vote)
+        Character character = user.getCharacter();
         model.addAttribute("character", character);
 
         // Get stories created and contributed to by the user
@@ -77,16 +78,16 @@ public class ProfilePageController {
     }
     // Display profile edit form
     @GetMapping("/profile/edit")
-    public String editProfile(Model model) {
+    public String editProfile(@CurrentUser User user, Model model) {
 
         // Pre-fill form with current user data
-        model.addAttribute("user", currentUser());
+        model.addAttribute("user", user);
         return "profile-edit";
     }
     // Handle profile update form submission
     @PostMapping("/profile/edit")
-    public String updateProfile(@ModelAttribute("user") User formUser, BindingResult result, Model model) {
-        User dbUser = currentUser();
+    public String updateProfile(@ModelAttribute("user") User formUser, BindingResult result, Model model,
+                                @CurrentUser User dbUser, HttpServletRequest request) {
 
         // Validate form data
         if (result.hasErrors()) {
@@ -94,6 +95,7 @@ public class ProfilePageController {
             return "profile-edit";
         }
         // Update user details
+        String oldUsername = dbUser.getUsername();
         dbUser.setFirstName(formUser.getFirstName());
         dbUser.setLastName(formUser.getLastName());
         dbUser.setEmail(formUser.getEmail());
@@ -104,6 +106,11 @@ public class ProfilePageController {
             dbUser.setPassword(passwordEncoder.encode(formUser.getPassword()));
         }
         userRepository.save(dbUser);
+
+        // Drop the cached user so the next request (and next login) sees the edited profile
+        currentUserResolver.invalidate(request);
+        userDetailsCache.removeUserFromCache(oldUsername);
+        userDetailsCache.removeUserFromCache(dbUser.getUsername());
         return "redirect:/profile?updated=true";
     }
 }
\ No newline at end of file
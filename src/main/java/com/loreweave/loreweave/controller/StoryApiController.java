@@ -0,0 +1,62 @@
+/// ==========================================
+/// File Name:    StoryApiController.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      JSON endpoints for browsing stories. Returns lightweight
+///               StorySummaryView DTOs with keyset (cursor) pagination so
+///               cost per request stays flat as the story table grows.
+///               Also serves windows of a story's parts for infinite scroll.
+/// ==========================================
+package com.loreweave.loreweave.controller;
+
+import com.loreweave.loreweave.dto.story.StoryPage;
+import com.loreweave.loreweave.dto.story.StoryPartWindow;
+import com.loreweave.loreweave.service.StoryService;
+import com.loreweave.loreweave.service.StoryViewCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/stories")
+public class StoryApiController {
+
+    private static final int DEFAULT_PAGE_SIZE = 25;
+    private static final int DEFAULT_WINDOW_SIZE = 50;
+
+    private final StoryService storyService;
+    private final StoryViewCache storyViewCache;
+
+    public StoryApiController(StoryService storyService,
+                              StoryViewCache storyViewCache) {
+        this.storyService = storyService;
+        this.storyViewCache = storyViewCache;
+    }
+
+    // GET /api/stories?cursor=...&size=...
+    // Returns { stories: [...], nextCursor: "..." | null }
+    @GetMapping
+    public ResponseEntity<StoryPage> listStories(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        try {
+            return ResponseEntity.ok(storyService.listStories(cursor, size));
+        } catch (IllegalArgumentException ex) {
+            // Malformed cursor token
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // GET /api/stories/{id}/parts?afterOrder=...&size=...
+    // Returns { parts: [...], nextAfterOrder: N | null } for infinite scroll
+    @GetMapping("/{id:\\d+}/parts")
+    public ResponseEntity<StoryPartWindow> listParts(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "afterOrder", defaultValue = "0") int afterOrder,
+            @RequestParam(value = "size", defaultValue = "" + DEFAULT_WINDOW_SIZE) int size) {
+
+        // Served from the story view cache when warm
+        return storyViewCache.getStory(id)
+                .map(view -> ResponseEntity.ok(storyViewCache.getPartWindow(view, afterOrder, size)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
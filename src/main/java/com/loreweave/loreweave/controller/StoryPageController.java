@@ -14,90 +14,95 @@
 ///  /// Updated By:     Jamie Coker on 2025-12-07
 /// /// Update Notes:   Added dynamic storyPart count for each story displayed on the /stories page.
 /// ///                 Added @Transient partCount mapping and controller logic to populate story thread counts.
+/// Updated By:     Capstone Team
+/// Update Notes:   /stories now renders StorySummaryView projections in a single query using the
+///                 persisted part_count instead of loading every StoryPart per story.
+///                 Listing is keyset-paginated on (lastUpdatedAt, id) via StoryService.listStories;
+///                 an "Older stories" link carries the next cursor.
+///                 /story/{id} renders parts in windows of 50 by partOrder (?afterOrder=N)
+///                 instead of materialising every part of long stories.
+///                 /story/{id} is served from StoryViewCache (append-extended, no DB hit when warm).
+///                 /story/new resolves the author via @CurrentUser: the form check reads the
+///                 session-cached character id, the POST uses the character loaded with the user.
 /// ==========================================
 package com.loreweave.loreweave.controller;
 
+import com.loreweave.loreweave.dto.story.StoryPage;
+import com.loreweave.loreweave.dto.story.StoryPartWindow;
+import com.loreweave.loreweave.dto.story.StoryView;
 import com.loreweave.loreweave.model.Story;
-import com.loreweave.loreweave.model.StoryPart;
 import com.loreweave.loreweave.model.User;
 import com.loreweave.loreweave.model.Character;
-import com.loreweave.loreweave.repository.CharacterRepository;
-import com.loreweave.loreweave.repository.StoryPartRepository;
-import com.loreweave.loreweave.repository.StoryRepository;
-import com.loreweave.loreweave.repository.UserRepository;
+import com.loreweave.loreweave.security.CurrentUser;
+import com.loreweave.loreweave.security.CurrentUserRef;
 import com.loreweave.loreweave.service.StoryService;
+import com.loreweave.loreweave.service.StoryViewCache;
 
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
-
 @Controller
 public class StoryPageController {
 
-    private final StoryRepository storyRepository;
-    private final StoryPartRepository storyPartRepository;
+    private final StoryViewCache storyViewCache;
     private final StoryService storyService;
-    private final UserRepository userRepository;
-    private final CharacterRepository characterRepository;
-
-    public StoryPageController(StoryRepository storyRepository,
-                               StoryPartRepository storyPartRepository,
-                               StoryService storyService,
-                               UserRepository userRepository,
-                               CharacterRepository characterRepository) {
-        this.storyRepository = storyRepository;
-        this.storyPartRepository = storyPartRepository;
+
+    public StoryPageController(StoryViewCache storyViewCache,
+                               StoryService storyService) {
+        this.storyViewCache = storyViewCache;
         this.storyService = storyService;
-        this.userRepository = userRepository;
-        this.characterRepository = characterRepository;
     }
 
+    // Number of stories rendered per /stories page
+    private static final int STORIES_PAGE_SIZE = 25;
+
+    // Number of parts rendered per /story/{id} window
+    private static final int PARTS_WINDOW_SIZE = 50;
+
     // ==========================================
     // Stories listing page — now with part count
     // ==========================================
     @GetMapping("/stories")
-    public String stories(Model model) {
-
-        // Fetch all stories with creator + user
-        List<Story> stories = storyRepository.findAllWithCreatorAndUserOrderByLastUpdatedAtDesc();
-
-        // Add story part counts to each story
-        for (Story story : stories) {
-            int partCount = storyPartRepository.findByStoryIdOrderByPartOrderAsc(story.getId()).size();
-            story.setPartCount(partCount);   // Story has transient field
+    public String stories(@RequestParam(value = "cursor", required = false) String cursor, Model model) {
+
+        // One projection query per page: title, creator username, timestamps and the maintained part count
+        StoryPage page;
+        try {
+            page = storyService.listStories(cursor, STORIES_PAGE_SIZE);
+        } catch (IllegalArgumentException ex) {
+            // Stale or hand-edited cursor: fall back to the newest stories
+            page = storyService.listStories(null, STORIES_PAGE_SIZE);
         }
 
-        model.addAttribute("stories", stories);
+        model.addAttribute("stories", page.stories());
+        model.addAttribute("nextCursor", page.nextCursor());
         return "stories";
     }
 
-    // View a single story
+    // View a single story, one window of parts at a time (?afterOrder=N continues after part N)
     @GetMapping("/story/{id:\\d+}")
-    public String story(@PathVariable("id") Long id, Model model) {
+    public String story(@PathVariable("id") Long id,
+                        @RequestParam(value = "afterOrder", defaultValue = "0") int afterOrder,
+                        Model model) {
 
-        Story story = storyRepository.findByIdWithCreatorAndUser(id).orElseThrow();
+        StoryView story = storyViewCache.getStory(id).orElseThrow();
 
-        List<StoryPart> parts = storyPartRepository.fetchByStoryIdOrderByPartOrderAsc(id);
+        StoryPartWindow window = storyViewCache.getPartWindow(story, afterOrder, PARTS_WINDOW_SIZE);
 
         model.addAttribute("story", story);
-        model.addAttribute("parts", parts);
+        model.addAttribute("parts", window.parts());
+        model.addAttribute("afterOrder", afterOrder);
+        model.addAttribute("nextAfterOrder", window.nextAfterOrder());
         return "story";
     }
 
     // New Story Form
     @GetMapping("/story/new")
-    public String newStory(Authentication auth, RedirectAttributes ra) {
+    public String newStory(@CurrentUser CurrentUserRef current, RedirectAttributes ra) {
 
-        String username = ((UserDetails) auth.getPrincipal()).getUsername();
-        User owner = userRepository.findByUsername(username).orElse(null);
-
-        boolean hasCharacter = characterRepository.findByUser(owner).isPresent();
-        if (!hasCharacter) {
+        if (!current.hasCharacter()) {
             ra.addFlashAttribute("warning", "Create your character first.");
             return "redirect:/characters/new";
         }
@@ -107,14 +112,11 @@ public class StoryPageController {
 
     // Create Story Post Handler
     @PostMapping("/story/new")
-    public String createStory(Authentication auth,
+    public String createStory(@CurrentUser User owner,
                               @RequestParam("title") String title,
                               RedirectAttributes ra) {
 
-        String username = ((UserDetails) auth.getPrincipal()).getUsername();
-        User owner = userRepository.findByUsername(username).orElse(null);
-
-        Character creator = characterRepository.findByUser(owner).orElse(null);
+        Character creator = owner.getCharacter();
 
         if (creator == null) {
             ra.addFlashAttribute("warning", "Create your character first.");
@@ -23,20 +23,27 @@ package com.loreweave.loreweave.controller;
 ///                 StoryPartService and returns a dedicated error view
 ///                 (story-part-turn-error.html) with a helpful message and
 ///                 a link back to the story.
+///
+///  Updated By:    Capstone Team
+///  Update Notes:  viewStoryPart reads totalVotes/voteScore from story_part_tally and checks
+///                 userHasVoted with an exists query instead of loading the votes.
+///                 The voter id for userHasVoted comes from @CurrentUser (session-cached ids).
 /// ==========================================
 
 
 import com.loreweave.loreweave.model.StoryPart;
+import com.loreweave.loreweave.model.StoryPartTally;
 import com.loreweave.loreweave.model.User;
 import com.loreweave.loreweave.repository.LoreVoteRepository;
-import com.loreweave.loreweave.repository.UserRepository;
+import com.loreweave.loreweave.repository.StoryPartTallyRepository;
+import com.loreweave.loreweave.security.CurrentUser;
+import com.loreweave.loreweave.security.CurrentUserRef;
 import com.loreweave.loreweave.service.StoryPartService;
 import com.loreweave.loreweave.service.StoryService;     // 👈 NEW
 import java.util.Optional;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import com.loreweave.loreweave.service.StoryService;
@@ -48,23 +55,23 @@ public class StoryPartController {
 
     private final StoryPartService storyPartService;
     private final LoreVoteRepository loreVoteRepository;
-    private final UserRepository userRepository;
     private final StoryService storyService;   // 👈 NEW: used for error page
+    private final StoryPartTallyRepository storyPartTallyRepository;
 
     //  Constructor injection — ensures all fields are properly initialized
     public StoryPartController(StoryPartService storyPartService,
                                LoreVoteRepository loreVoteRepository,
-                               UserRepository userRepository,
-                               StoryService storyService) {     // 👈 NEW param
+                               StoryService storyService,       // 👈 NEW param
+                               StoryPartTallyRepository storyPartTallyRepository) {
         this.storyPartService = storyPartService;
         this.loreVoteRepository = loreVoteRepository;
-        this.userRepository = userRepository;
         this.storyService = storyService;                      // 👈 NEW assignment
+        this.storyPartTallyRepository = storyPartTallyRepository;
     }
 
     // Display a single story part and voting info
     @GetMapping("/story-parts/{id}")
-    public String viewStoryPart(@PathVariable("id") Long id, Model model, Authentication authentication) {
+    public String viewStoryPart(@PathVariable("id") Long id, Model model, @CurrentUser CurrentUserRef current) {
 
         Optional<StoryPart> optionalPart = storyPartService.getStoryPartByIdWithContributorAndUser(id);
         if (optionalPart.isEmpty()) {
@@ -75,20 +82,18 @@ public class StoryPartController {
         model.addAttribute("part", part);
 
         boolean userHasVoted = false;
-        if (authentication != null && authentication.isAuthenticated()) {
-            var user = userRepository.findByUsername(authentication.getName()).orElseThrow();
-            userHasVoted = loreVoteRepository.findByStoryPartAndVoter(part, user).isPresent();
+        if (current != null) {
+            userHasVoted = loreVoteRepository.existsByStoryPartIdAndVoterId(part.getId(), current.userId());
         }
 
         model.addAttribute("userHasVoted", userHasVoted);
 
-        long totalVotes = loreVoteRepository.findByStoryPart(part).size();
-        long voteScore = loreVoteRepository.findByStoryPart(part).stream()
-                .mapToInt(v -> v.getVoteType() == com.loreweave.loreweave.model.LoreVote.VoteType.POSITIVE ? 1 : -1)
-                .sum();
+        // Materialised tally: one primary-key read instead of loading every vote
+        StoryPartTally tally = storyPartTallyRepository.findById(part.getId())
+                .orElseGet(() -> StoryPartTally.empty(part.getId()));
 
-        model.addAttribute("totalVotes", totalVotes);
-        model.addAttribute("voteScore", voteScore);
+        model.addAttribute("totalVotes", (long) tally.getTotal());
+        model.addAttribute("voteScore", (long) tally.getScore());
 
         return "story-part";
     }
@@ -20,18 +20,21 @@
 /// Updated By:   Jamie Coker on 2025-12-07
 /// /// Update Notes: Added turn-order validation to GET /story-parts/new so users
 /// ///               cannot access the creation form if they wrote the last part.
+/// Updated By:   Capstone Team
+/// Update Notes: GET /story-parts/new checks the turn via StoryPartService.isLastAuthor
+///               (StoryLastAuthorIndex) instead of loading the last StoryPart and its author.
+///               Current user comes from @CurrentUser; the form's turn check only needs the
+///               session-cached user id.
 /// ==========================================
 package com.loreweave.loreweave.controller;
 
 import com.loreweave.loreweave.model.User;
 import com.loreweave.loreweave.repository.LoreVoteRepository;
-import com.loreweave.loreweave.repository.StoryPartRepository;
-import com.loreweave.loreweave.repository.UserRepository;
+import com.loreweave.loreweave.security.CurrentUser;
+import com.loreweave.loreweave.security.CurrentUserRef;
 import com.loreweave.loreweave.service.StoryPartService;
 import com.loreweave.loreweave.service.StoryService;   //  NEW
 
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -40,21 +43,15 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 @Controller
 public class StoryPartPageController {
 
-    private final StoryPartRepository storyPartRepository;
     private final LoreVoteRepository loreVoteRepository;
     private final StoryPartService storyPartService;
-    private final UserRepository userRepository;
     private final StoryService storyService;  //  NEW
 
-    public StoryPartPageController(StoryPartRepository storyPartRepository,
-                                   LoreVoteRepository loreVoteRepository,
+    public StoryPartPageController(LoreVoteRepository loreVoteRepository,
                                    StoryPartService storyPartService,
-                                   UserRepository userRepository,
                                    StoryService storyService) {  //  NEW param
-        this.storyPartRepository = storyPartRepository;
         this.loreVoteRepository = loreVoteRepository;
         this.storyPartService = storyPartService;
-        this.userRepository = userRepository;
         this.storyService = storyService;     //  NEW assignment
     }
 
@@ -62,14 +59,10 @@ public class StoryPartPageController {
     @PostMapping("/story-parts")
     public String createPart(@RequestParam("storyId") Long storyId,
                              @RequestParam("content") String content,
-                             Authentication auth,
+                             @CurrentUser User user,
                              RedirectAttributes ra,
                              Model model) throws Exception {   //  added Model
 
-        // Resolve current user
-        String username = ((UserDetails) auth.getPrincipal()).getUsername();
-        User user = userRepository.findByUsername(username).orElse(null);
-
         try {
             // Create the story part (enforces: must have character, no two turns in a row)
             storyPartService.createPartForStory(storyId, content, user);
@@ -99,34 +92,22 @@ public class StoryPartPageController {
     // Show form to create a new story part — BUT first check turn order
     @GetMapping("/story-parts/new")
     public String newPartForm(@RequestParam("storyId") Long storyId,
-                              Authentication auth,
+                              @CurrentUser CurrentUserRef user,
                               Model model) {
 
-        // Resolve current user
-        String username = ((UserDetails) auth.getPrincipal()).getUsername();
-        User user = userRepository.findByUsername(username).orElse(null);
-
         // Load the story
         var story = storyService.getStoryById(storyId);
 
-        // Load the last part of the story
-        var lastPartOpt = storyPartRepository.findTopByStoryIdOrderByPartOrderDesc(storyId);
+        // If the logged-in user wrote the last part → NOT THEIR TURN (in-memory index lookup)
+        if (user != null && storyPartService.isLastAuthor(storyId, user.userId())) {
 
-        if (lastPartOpt.isPresent()) {
-            var lastPart = lastPartOpt.get();
+            model.addAttribute("story", story);
+            model.addAttribute(
+                    "errorMessage",
+                    "You wrote the last part of this story. Another author must contribute before you can add a new part."
+            );
 
-            // If the logged-in user wrote the last part → NOT THEIR TURN
-            if (lastPart.getAuthor() != null &&
-                    lastPart.getAuthor().getId().equals(user.getId())) {
-
-                model.addAttribute("story", story);
-                model.addAttribute(
-                        "errorMessage",
-                        "You wrote the last part of this story. Another author must contribute before you can add a new part."
-                );
-
-                return "story-part-turn-error";
-            }
+            return "story-part-turn-error";
         }
 
         // Otherwise allow the form to load
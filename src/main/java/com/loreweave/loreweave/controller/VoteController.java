@@ -32,26 +32,50 @@ package com.loreweave.loreweave.controller;
 
 /// Updated By: Wyatt Bechtle
 /// Update Notes: Added notification logic to inform the contributor when their story part receives a vote.
+///
+/// Updated By: Capstone Team
+/// Update Notes: The vote notification is queued in the notification outbox within the vote
+///               transaction; the insert and WebSocket push happen after commit (NotificationDispatcher).
+///               Each vote also bumps story_part_tally in the same transaction, and
+///               countVotes reads that tally instead of loading every vote.
+///
+/// Updated By: Capstone Team
+/// Update Notes: Vote notifications are grouped per (contributor, story part, vote type) so a
+///               burst folds into one "N new votes" notification instead of one row per vote.
+///
+/// Updated By: Capstone Team
+/// Update Notes: The voter is resolved by @CurrentUser (once per request) instead of a
+///               findByUsername call in each handler.
+///
+/// Updated By: Capstone Team
+/// Update Notes: The vote is saved with saveAndFlush so a duplicate (story_part_id, voter_id)
+///               from a racing request fails inside the try and redirects with LV001; failures
+///               roll the transaction back instead of surfacing as an unexpected-rollback 500.
+///
+/// Updated By: Capstone Team
+/// Update Notes: The lore point UPDATE no longer clears the whole "character" cache region;
+///               the contributor's own entry is evicted once the vote commits.
 /// 
  */
 
 
 
+import com.loreweave.loreweave.model.Character;
 import com.loreweave.loreweave.model.LoreVote;
 import com.loreweave.loreweave.model.LoreVote.VoteType;
-import com.loreweave.loreweave.model.StoryPart;
 import com.loreweave.loreweave.model.User;
 import com.loreweave.loreweave.repository.CharacterRepository;
 import com.loreweave.loreweave.repository.LoreVoteRepository;
 import com.loreweave.loreweave.repository.StoryPartRepository;
-import com.loreweave.loreweave.repository.UserRepository;
+import com.loreweave.loreweave.repository.StoryPartTallyRepository;
+import com.loreweave.loreweave.security.CurrentUser;
 import com.loreweave.loreweave.service.NotificationService;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import com.loreweave.loreweave.model.Notification;
-import com.loreweave.loreweave.dto.ws.NotificationView;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -68,23 +92,23 @@ public class VoteController {
 
     private final LoreVoteRepository loreVoteRepository;
     private final StoryPartRepository storyPartRepository;
-    private final UserRepository userRepository;
-    private final CharacterRepository characterRepository;
     private final NotificationService notificationService;
-    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final StoryPartTallyRepository storyPartTallyRepository;
+    private final CharacterRepository characterRepository;
+    private final EntityManagerFactory entityManagerFactory;
 
     public VoteController(LoreVoteRepository loreVoteRepository,
                           StoryPartRepository storyPartRepository,
-                          UserRepository userRepository,
-                          CharacterRepository characterRepository,
                           NotificationService notificationService,
-                          SimpMessagingTemplate simpMessagingTemplate) {
+                          CharacterRepository characterRepository,
+                          StoryPartTallyRepository storyPartTallyRepository,
+                          EntityManagerFactory entityManagerFactory) {
         this.loreVoteRepository = loreVoteRepository;
-        this.storyPartRepository = storyPartRepository;
-        this.userRepository = userRepository;
         this.characterRepository = characterRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.storyPartRepository = storyPartRepository;
+        this.storyPartTallyRepository = storyPartTallyRepository;
         this.notificationService = notificationService;
-        this.simpMessagingTemplate = simpMessagingTemplate;
     }
 
 
@@ -96,12 +120,13 @@ public class VoteController {
     @Transactional
     public org.springframework.http.ResponseEntity<Void> castVote(
             @PathVariable Long storyPartId,
-            @RequestParam(defaultValue = "POSITIVE") LoreVote.VoteType type) {
+            @RequestParam(defaultValue = "POSITIVE") LoreVote.VoteType type,
+            @CurrentUser User voter) {
 
         // --- 1) Authentication ---
-        var auth = SecurityContextHolder.getContext().getAuthentication();
-        var voter = userRepository.findByUsername(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (voter == null) {
+            throw new RuntimeException("User not found");
+        }
 
         // --- 2) StoryPart Exists? (LV002) ---
         var part = storyPartRepository.findById(storyPartId)
@@ -146,36 +171,42 @@ public class VoteController {
             vote.setAmount(delta);
             vote.setReceiverId(contributor.getId());
             vote.setStatus("COMPLETED");
-            loreVoteRepository.save(vote);
+
+            // Flush now: with a sequence id the INSERT would otherwise wait for commit, outside
+            // this try, and a racing duplicate would surface as a raw 500
+            loreVoteRepository.saveAndFlush(vote);
+
+            // Keep the part's materialised tally in step with the vote (same transaction)
+            storyPartTallyRepository.recordVote(storyPartId, delta > 0 ? 1 : 0, delta < 0 ? 1 : 0);
 
             // --- 8) Update contributor lore points ---
+            // One atomic UPDATE; only this character's cached copy is dropped, after commit
             characterRepository.incrementLorePoints(contributor.getId(), delta);
+            evictAfterCommit(contributor.getId());
 
-            // Create a notification for the contributor so they are informed about the vote.
-            try {
-                if (contributor.getUser() != null) {
-                    var recipientUser = contributor.getUser();
-                    String msg = String.format("Your story part received a %s vote from %s", type == VoteType.POSITIVE ? "positive" : "negative", voter.getUsername());
-                    String link = "/story-parts/" + storyPartId; // link directly to the story part page
-                    Notification n = new Notification(recipientUser, voter, msg, link);
-                    Notification saved = notificationService.createNotification(n);
-                    // Send WebSocket notification to the recipient user (best-effort)
-                    try {
-                        simpMessagingTemplate.convertAndSendToUser(
-                                recipientUser.getUsername(),
-                                "/queue/notifications",
-                                new NotificationView(saved.getMessage(), voter.getUsername(), saved.getCreatedAt().toString())
-                        );
-                    } catch (Exception e) {
-                        // swallow websocket errors; notification remains persisted
-                    }
-                }
-            } catch (Exception e) {
-                // Intentionally swallow notification-related errors to avoid affecting voting flow
+            // Queue a notification for the contributor so they are informed about the vote.
+            // Written to the outbox with the vote; NotificationDispatcher delivers it after commit.
+            if (contributor.getUser() != null) {
+                var recipientUser = contributor.getUser();
+                String kind = type == VoteType.POSITIVE ? "positive" : "negative";
+                String msg = String.format("Your story part received a %s vote from %s", kind, voter.getUsername());
+                String link = "/story-parts/" + storyPartId; // link directly to the story part page
+
+                // Votes on the same part fold into one unread notification with a running count
+                String groupKey = "vote:" + storyPartId + ":" + type;
+                String groupMsg = "Your story part received {count} new " + kind + " votes (latest from {sender})";
+                notificationService.queueGroupedNotification(recipientUser, voter, msg, link, groupKey, groupMsg);
             }
 
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent vote by the same user got past check 5; the unique key caught it (LV001).
+            // Roll back quietly so the redirect below is what the client gets
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            var location = java.net.URI.create("/story-parts/" + storyPartId + "?error=" + ERROR_DUPLICATE);
+            return org.springframework.http.ResponseEntity.status(409).location(location).build();
         } catch (Exception ex) {
             // Transaction failure (LV005)
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             var location = java.net.URI.create("/story-parts/" + storyPartId + "?error=" + ERROR_TRANSACTION);
             return org.springframework.http.ResponseEntity.status(500).location(location).build();
         }
@@ -185,27 +216,41 @@ public class VoteController {
         return org.springframework.http.ResponseEntity.status(303).location(location).build();
     }
 
+    // Drop one character's second-level cache entry once the vote has committed, so the
+    // next read sees the new lore points without clearing the rest of the region
+    private void evictAfterCommit(Long characterId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.getCache().evict(Character.class, characterId);
+            }
+        });
+    }
+
     /**
-     * Count positive votes for a story part.
+     * Count positive votes for a story part (read from the materialised tally).
      */
     @GetMapping("/storypart/{id}/count")
     public long countVotes(@PathVariable Long id) {
-        StoryPart storyPart = storyPartRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Story part not found"));
-        return loreVoteRepository.findByStoryPart(storyPart).stream()
-                .filter(v -> v.getVoteType() == VoteType.POSITIVE)
-                .count();
+        var tally = storyPartTallyRepository.findById(id);
+        if (tally.isPresent()) {
+            return tally.get().getPositive();
+        }
+        // No tally row: either nobody voted yet or the part does not exist
+        if (!storyPartRepository.existsById(id)) {
+            throw new RuntimeException("Story part not found");
+        }
+        return 0;
     }
 
     /**
      * Get all votes (with transaction data) made by the logged-in user.
      */
     @GetMapping("/myvotes")
-    public List<LoreVote> getMyVotes() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-        User voter = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public List<LoreVote> getMyVotes(@CurrentUser User voter) {
+        if (voter == null) {
+            throw new RuntimeException("User not found");
+        }
         return loreVoteRepository.findByVoter(voter);
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+/// ==========================================
+/// File Name:    LorePointsView.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Character id paired with a lore point total, used by the
+///               lore point reconciliation job (stored value or LoreVote sum).
+/// ==========================================
+package com.loreweave.loreweave.dto.character;
+
+public record LorePointsView(
+    Long characterId,
+    int lorePoints
+) {}
@@ -0,0 +1,18 @@
+/// ==========================================
+/// File Name:    ConversationView.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      One conversation in the /messages sidebar. id and
+///               otherPartyUsername are both the partner's username, matching
+///               the keys the messages template has always used.
+/// ==========================================
+package com.loreweave.loreweave.dto.message;
+
+import java.time.LocalDateTime;
+
+public record ConversationView(
+    String id,
+    String otherPartyUsername,
+    LocalDateTime lastMessageAt,
+    long unreadCount
+) {}
@@ -0,0 +1,41 @@
+/// ==========================================
+/// File Name:    MessageCursor.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Keyset cursor for conversation threads. Identifies the oldest
+///               message already shown by its per-conversation seq and round-trips
+///               through an opaque URL-safe token for the "load older" API.
+/// ==========================================
+package com.loreweave.loreweave.dto.message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record MessageCursor(
+    long seq
+) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(seq).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     * @param token the opaque cursor token
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static MessageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            long seq = Long.parseLong(raw);
+            if (seq < 1) {
+                throw new IllegalArgumentException("Malformed message cursor");
+            }
+            return new MessageCursor(seq);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed message cursor", e);
+        }
+    }
+}
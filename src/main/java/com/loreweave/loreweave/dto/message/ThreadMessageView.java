@@ -0,0 +1,17 @@
+/// ==========================================
+/// File Name:    ThreadMessageView.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      A single message in a /messages thread, read as a projection
+///               so no Notification or User entities are loaded.
+/// ==========================================
+package com.loreweave.loreweave.dto.message;
+
+import java.time.LocalDateTime;
+
+public record ThreadMessageView(
+    Long id,
+    String message,
+    String senderUsername,
+    LocalDateTime createdAt
+) {}
@@ -0,0 +1,15 @@
+/// ==========================================
+/// File Name:    ThreadPage.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      One keyset page of a conversation thread (oldest first) plus
+///               the token for loading older messages (null at the beginning).
+/// ==========================================
+package com.loreweave.loreweave.dto.message;
+
+import java.util.List;
+
+public record ThreadPage(
+    List<ThreadMessageView> messages,
+    String olderCursor
+) {}
@@ -0,0 +1,13 @@
+/// ==========================================
+/// File Name:    LastPartAuthorView.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      partOrder and author id of a story's latest part, read
+///               without loading the StoryPart entity (turn-order checks).
+/// ==========================================
+package com.loreweave.loreweave.dto.story;
+
+public record LastPartAuthorView(
+    int partOrder,
+    Long authorId
+) {}
@@ -0,0 +1,52 @@
+/// ==========================================
+/// File Name:    StoryCursor.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Keyset cursor for the stories listing. Identifies the last
+///               story on a page by (lastUpdatedAt, id) and round-trips through
+///               an opaque URL-safe token so clients never build it themselves.
+/// ==========================================
+package com.loreweave.loreweave.dto.story;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public record StoryCursor(
+    LocalDateTime lastUpdatedAt,
+    Long id
+) {
+
+    // Cursor pointing just past the given story
+    public static StoryCursor after(StorySummaryView story) {
+        return new StoryCursor(story.lastUpdatedAt(), story.id());
+    }
+
+    public String encode() {
+        String raw = lastUpdatedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     * @param token the opaque cursor token
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static StoryCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            if (sep < 0) {
+                throw new IllegalArgumentException("Malformed story cursor");
+            }
+            return new StoryCursor(
+                    LocalDateTime.parse(raw.substring(0, sep)),
+                    Long.parseLong(raw.substring(sep + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed story cursor", e);
+        }
+    }
+}
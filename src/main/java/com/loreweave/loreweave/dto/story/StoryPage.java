@@ -0,0 +1,15 @@
+/// ==========================================
+/// File Name:    StoryPage.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      One keyset page of story summaries plus the token for the
+///               next page (null when there are no older stories).
+/// ==========================================
+package com.loreweave.loreweave.dto.story;
+
+import java.util.List;
+
+public record StoryPage(
+    List<StorySummaryView> stories,
+    String nextCursor
+) {}
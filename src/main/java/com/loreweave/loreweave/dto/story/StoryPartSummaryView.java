@@ -0,0 +1,18 @@
+/// ==========================================
+/// File Name:    StoryPartSummaryView.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Projection of a StoryPart for story part listings. Carries
+///               only what the story page renders (no TEXT content) so a
+///               window of parts is cheap to load and serialize.
+/// ==========================================
+package com.loreweave.loreweave.dto.story;
+
+import java.time.LocalDateTime;
+
+public record StoryPartSummaryView(
+    Long id,
+    int partOrder,
+    String contributorUsername,
+    LocalDateTime createdAt
+) {}
@@ -0,0 +1,16 @@
+/// ==========================================
+/// File Name:    StoryPartWindow.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      One window of a story's parts ordered by partOrder, plus the
+///               partOrder to pass as afterOrder for the next window (null
+///               when the end of the story has been reached).
+/// ==========================================
+package com.loreweave.loreweave.dto.story;
+
+import java.util.List;
+
+public record StoryPartWindow(
+    List<StoryPartSummaryView> parts,
+    Integer nextAfterOrder
+) {}
@@ -0,0 +1,20 @@
+/// ==========================================
+/// File Name:    StorySummaryView.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Lightweight projection of a Story for the /stories listing.
+///               Populated directly by a JPQL constructor expression so the
+///               listing never loads StoryPart rows or full entities.
+/// ==========================================
+package com.loreweave.loreweave.dto.story;
+
+import java.time.LocalDateTime;
+
+public record StorySummaryView(
+    Long id,
+    String title,
+    String creatorUsername,
+    LocalDateTime lastUpdatedAt,
+    int partCount,
+    LocalDateTime lastPartAt
+) {}
@@ -0,0 +1,79 @@
+/// ==========================================
+/// File Name:    StoryView.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Immutable, cacheable view of a story for /story/{id}: the
+///               header fields plus the ordered part summaries. parts is null
+///               when the story is too long to keep in memory, in which case
+///               windows are read from the database instead.
+/// ==========================================
+package com.loreweave.loreweave.dto.story;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public record StoryView(
+    Long id,
+    String title,
+    String creatorUsername,
+    LocalDateTime createdAt,
+    LocalDateTime lastUpdatedAt,
+    int partCount,
+    List<StoryPartSummaryView> parts
+) {
+
+    public StoryView {
+        parts = parts != null ? List.copyOf(parts) : null;
+    }
+
+    public boolean hasCachedParts() {
+        return parts != null;
+    }
+
+    // Highest cached partOrder (0 for a story with no parts); only meaningful with cached parts
+    public int lastPartOrder() {
+        return parts == null || parts.isEmpty() ? 0 : parts.get(parts.size() - 1).partOrder();
+    }
+
+    /**
+     * Copy of this view with one more part at the end. Part lists longer than
+     * maxParts are dropped so the cache only keeps the header for huge stories.
+     */
+    public StoryView withAppendedPart(StoryPartSummaryView part, int maxParts) {
+        List<StoryPartSummaryView> next = null;
+        if (parts != null && parts.size() < maxParts) {
+            next = new ArrayList<>(parts.size() + 1);
+            next.addAll(parts);
+            next.add(part);
+        }
+        return new StoryView(id, title, creatorUsername, createdAt, part.createdAt(), partCount + 1, next);
+    }
+
+    /**
+     * Slice a window of cached parts with partOrder greater than afterOrder.
+     * Only valid when {@link #hasCachedParts()} is true.
+     */
+    public StoryPartWindow window(int afterOrder, int size) {
+        // Parts are sorted by partOrder; binary search for the first part after afterOrder
+        int lo = 0;
+        int hi = parts.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (parts.get(mid).partOrder() <= afterOrder) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        int end = Math.min(lo + size, parts.size());
+        List<StoryPartSummaryView> slice = parts.subList(lo, end);
+        Integer nextAfterOrder = end < parts.size() ? slice.get(slice.size() - 1).partOrder() : null;
+        return new StoryPartWindow(slice, nextAfterOrder);
+    }
+
+    // Rough cache weight: the header plus one unit per cached part
+    public int weight() {
+        return 1 + (parts != null ? parts.size() : 0);
+    }
+}
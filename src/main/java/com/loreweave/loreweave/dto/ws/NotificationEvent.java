@@ -0,0 +1,22 @@
+/// ==========================================
+/// File Name:    NotificationEvent.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      A single new notification as sent on the SSE stream
+///               (/notifications/stream). id is the notification id and is
+///               also the SSE event id, so browsers resume with Last-Event-ID.
+///               updatedAt is the time of the latest event folded into it
+///               (equal to createdAt for notifications that never fold).
+/// ==========================================
+package com.loreweave.loreweave.dto.ws;
+
+import java.time.LocalDateTime;
+
+public record NotificationEvent(
+    Long id,
+    String message,
+    String from,
+    String link,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {}
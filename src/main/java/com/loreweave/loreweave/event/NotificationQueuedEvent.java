@@ -0,0 +1,13 @@
+/// ==========================================
+/// File Name:    NotificationQueuedEvent.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Published when a notification is written to the outbox, so
+///               NotificationDispatcher can wake up as soon as the writing
+///               transaction commits instead of waiting for its next poll.
+/// ==========================================
+package com.loreweave.loreweave.event;
+
+public record NotificationQueuedEvent(
+    Long outboxId
+) {}
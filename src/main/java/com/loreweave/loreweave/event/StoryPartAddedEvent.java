@@ -0,0 +1,20 @@
+/// ==========================================
+/// File Name:    StoryPartAddedEvent.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Application event published by StoryPartService when a new
+///               StoryPart is saved. Listeners use @TransactionalEventListener
+///               so they only react once the part has actually committed.
+/// ==========================================
+package com.loreweave.loreweave.event;
+
+import java.time.LocalDateTime;
+
+public record StoryPartAddedEvent(
+    Long storyId,
+    Long partId,
+    int partOrder,
+    Long authorId,
+    String contributorUsername,
+    LocalDateTime createdAt
+) {}
@@ -2,6 +2,8 @@ package com.loreweave.loreweave.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.loreweave.loreweave.security.PasswordHashingBusyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -14,6 +16,8 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 /// Purpose:      Centralized exception handler for Loreweave.
 ///               Converts backend exceptions into consistent JSON
 ///               structures for REST endpoints and logs all errors.
+///  Updated By:  Capstone Team on 2026-10-18
+///  Update Notes: Saturated password-hashing pool answers 503 with Retry-After.
 /// ==========================================
 
 @ControllerAdvice
@@ -36,6 +40,22 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    /**
+     * Handles a saturated password-hashing pool (registration / profile password change).
+     */
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingBusy(PasswordHashingBusyException ex) {
+        log.warn("Password hashing busy: {}", ex.getMessage());
+
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body(new ErrorResponse(
+                        "PASSWORD_HASHING_BUSY",
+                        ex.getMessage()
+                ));
+    }
+
     /**
      * Handles all uncaught errors and avoids backend crashes.
      */
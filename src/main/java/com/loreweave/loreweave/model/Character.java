@@ -7,27 +7,40 @@ package com.loreweave.loreweave.model;
 /// Update History:
 /// Updated by:  Wyatt Bechtle
 /// Updated Notes: Added getters and setters for lorePoints
+/// Updated By:   Capstone Team
+/// Update Notes: id is drawn from character_seq in blocks of 50 instead of IDENTITY,
+///               so saving a user with their character no longer costs a key round trip each.
+/// Updated By:   Capstone Team
+/// Update Notes: Cached in the second-level "character" region (READ_WRITE). A vote evicts
+///               only its contributor's entry after the lorePoints update commits.
 /// ==========================================
 
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Getter
 @Setter
 @Entity
 @jakarta.persistence.Table(name = "`character`")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "character")
 public class Character {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "character_seq")
+    @SequenceGenerator(name = "character_seq", sequenceName = "character_seq", allocationSize = 50)
     private Long id;
     private String name;
     private String description;
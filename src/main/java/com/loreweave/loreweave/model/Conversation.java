@@ -0,0 +1,59 @@
+/// ==========================================
+/// File Name:    Conversation.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      JPA entity for a private conversation between two users. Identified
+///               by the ordered user-id pair (userLowId <= userHighId), so both sides
+///               resolve to the same row. Holds the message sequence counter and each
+///               side's read position, so a side's unread count is lastSeq - readSeq
+///               and marking a thread read is a single-row update.
+/// ==========================================
+
+package com.loreweave.loreweave.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "conversation",
+       uniqueConstraints = @UniqueConstraint(name = "uk_conversation_pair", columnNames = {"user_low_id", "user_high_id"}),
+       indexes = {
+           @Index(name = "idx_conversation_low", columnList = "user_low_id, last_message_at"),
+           @Index(name = "idx_conversation_high", columnList = "user_high_id, last_message_at")
+       })
+public class Conversation {
+
+    // Stays IDENTITY: ConversationRepository.ensureExists inserts rows with native SQL
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_low_id", nullable = false)
+    private Long userLowId;
+
+    @Column(name = "user_high_id", nullable = false)
+    private Long userHighId;
+
+    // Sequence number of the latest message (0 before the first one)
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq = 0;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    // Highest seq each side has read
+    @Column(name = "low_read_seq", nullable = false)
+    private long lowReadSeq = 0;
+
+    @Column(name = "high_read_seq", nullable = false)
+    private long highReadSeq = 0;
+
+    public Conversation() {
+
+    }
+}
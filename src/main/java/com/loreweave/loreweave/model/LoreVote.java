@@ -7,6 +7,9 @@ package com.loreweave.loreweave.model;
 /// Updated By:   Jamie Coker on 2025-10-12
 /// Update Notes: Integrated transaction data (amount, status, receiverId)
 ///           to combine voting and transactions in one entity.
+/// Updated By:   Capstone Team
+/// Update Notes: Pooled lore_vote_seq ids (allocationSize 50). IDENTITY made Hibernate insert
+///               every vote on its own round trip; vote bursts now flush as JDBC batches.
 /// ==========================================
 
 
@@ -30,7 +33,8 @@ import java.time.LocalDateTime;
 public class LoreVote {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lore_vote_seq")
+    @SequenceGenerator(name = "lore_vote_seq", sequenceName = "lore_vote_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
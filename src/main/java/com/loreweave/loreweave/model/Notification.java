@@ -8,6 +8,15 @@
 ///         Update Details: Added senderUsername field to track who sent the notification
 ///             Updated By: Chris Ennis
 ///         Update Details: Refactored constructors to properly initialize fields.
+///             Updated By: Capstone Team
+///         Update Details: Added groupKey/groupCount so bursts (e.g. votes on one story part)
+///                         fold into a single unread notification with a counter.
+///                         Declared the (user_id, is_read) index used by unread counts now that
+///                         direct messages live in private_message.
+///                         Added updatedAt (time of the latest folded event); createdAt now stays at
+///                         the first event so the coalescing window does not slide.
+///                         Declared the (created_at) index NotificationRetentionJob uses to
+///                         find the highest id it has to look at.
 /// ==========================================
 
 package com.loreweave.loreweave.model;
@@ -21,8 +30,14 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_notification_user_read", columnList = "user_id, is_read"),
+    @Index(name = "idx_notification_group", columnList = "user_id, group_key, is_read"),
+    @Index(name = "idx_notification_created", columnList = "created_at")
+})
 public class Notification {
 
+    // Stays IDENTITY: SSE resume replays n.id > Last-Event-ID, so ids must follow insert order
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -43,14 +58,28 @@ public class Notification {
     @Column(nullable = false)
     private boolean isRead = false;
 
+    // Time of the first event; the coalescing window is measured from here
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    // Time of the latest event folded into this notification (shown to the user)
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Coalescing group, e.g. "vote:42:POSITIVE"; null for notifications that never fold
+    @Column(name = "group_key", length = 100)
+    private String groupKey;
+
+    // Number of events folded into this notification
+    @Column(name = "group_count", nullable = false)
+    private int groupCount = 1;
+
     public Notification(User user, User sender, String message) {
         this.user = user;
         this.sender = sender;
         this.message = message;
         this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
     }
 
     public Notification(User user, User sender, String message, String link) {
@@ -59,6 +88,7 @@ public class Notification {
         this.message = message;
         this.link = link;
         this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
     }
 
     public Notification() {
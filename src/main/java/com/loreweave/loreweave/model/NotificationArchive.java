@@ -0,0 +1,55 @@
+/// ==========================================
+/// File Name:    NotificationArchive.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      JPA entity for the notification_archive table: read notifications
+///               moved out of the live notification table by NotificationRetentionJob.
+///               Keeps the original id; users are stored as plain ids (no joins needed).
+/// ==========================================
+
+package com.loreweave.loreweave.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "notification_archive",
+       indexes = @Index(name = "idx_notification_archive_user", columnList = "user_id, created_at"))
+public class NotificationArchive {
+
+    // Same id the row had in the notification table
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "sender_id", nullable = false)
+    private Long senderId;
+
+    @Column(nullable = false)
+    private String message;
+
+    private String link;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "group_key", length = 100)
+    private String groupKey;
+
+    @Column(name = "group_count", nullable = false)
+    private int groupCount = 1;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public NotificationArchive() {
+
+    }
+}
@@ -0,0 +1,91 @@
+/// ==========================================
+/// File Name:    NotificationOutbox.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      JPA entity for the notification_outbox table. A row is written in
+///               the same transaction as the action that triggers a notification
+///               (new story part, vote) and later turned into a Notification row
+///               plus a WebSocket push by NotificationDispatcher, after commit.
+///               Usernames are copied onto the row so dispatching needs no User loads.
+///               Rows with a groupKey are coalesced into an open unread notification
+///               of the same group (see NotificationDispatcher).
+/// Updated By:   Capstone Team
+/// Update Notes: Pooled notification_outbox_seq ids so outbox rows batch with the votes that
+///               write them. Ids are only roughly time-ordered across instances now, which
+///               is all claimDue's "oldest first" needs.
+/// ==========================================
+
+package com.loreweave.loreweave.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "notification_outbox",
+       indexes = @Index(name = "idx_notification_outbox_due", columnList = "next_attempt_at, id"))
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_seq")
+    @SequenceGenerator(name = "notification_outbox_seq", sequenceName = "notification_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "recipient_id", nullable = false)
+    private Long recipientId;
+
+    @Column(name = "recipient_username", nullable = false)
+    private String recipientUsername;
+
+    @Column(name = "sender_id", nullable = false)
+    private Long senderId;
+
+    @Column(name = "sender_username", nullable = false)
+    private String senderUsername;
+
+    @Column(nullable = false)
+    private String message;
+
+    private String link;
+
+    // Coalescing group (Notification.groupKey); null means always a new notification
+    @Column(name = "group_key", length = 100)
+    private String groupKey;
+
+    // Message once several rows are folded together; {count} and {sender} are filled in
+    @Column(name = "group_message")
+    private String groupMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Number of failed dispatch attempts so far
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    // Row is not picked up again before this time (backoff after a failure)
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    public NotificationOutbox(User recipient, User sender, String message, String link) {
+        this.recipientId = recipient.getId();
+        this.recipientUsername = recipient.getUsername();
+        this.senderId = sender.getId();
+        this.senderUsername = sender.getUsername();
+        this.message = message;
+        this.link = link;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    public NotificationOutbox() {
+
+    }
+}
@@ -0,0 +1,60 @@
+/// ==========================================
+/// File Name:    PrivateMessage.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      JPA entity for one direct message. Messages are partitioned by
+///               conversation and numbered by a gap-free per-conversation seq, so a
+///               thread page is a range read on (conversation_id, seq).
+/// Updated By:   Capstone Team
+/// Update Notes: Pooled private_message_seq ids (allocationSize 50). Thread order comes
+///               from seq, never from id.
+/// ==========================================
+
+package com.loreweave.loreweave.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "private_message",
+       uniqueConstraints = @UniqueConstraint(name = "uk_private_message_seq", columnNames = {"conversation_id", "seq"}))
+public class PrivateMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "private_message_seq")
+    @SequenceGenerator(name = "private_message_seq", sequenceName = "private_message_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "conversation_id", nullable = false)
+    private Long conversationId;
+
+    // Position in the conversation, starting at 1
+    @Column(nullable = false)
+    private long seq;
+
+    @Column(name = "sender_id", nullable = false)
+    private Long senderId;
+
+    @Column(nullable = false)
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public PrivateMessage(Long conversationId, long seq, Long senderId, String message, LocalDateTime createdAt) {
+        this.conversationId = conversationId;
+        this.seq = seq;
+        this.senderId = senderId;
+        this.message = message;
+        this.createdAt = createdAt;
+    }
+
+    public PrivateMessage() {
+
+    }
+}
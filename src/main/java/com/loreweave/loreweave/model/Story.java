@@ -8,6 +8,14 @@ package com.loreweave.loreweave.model;
 /// Update History: Jamie Coker on 2025-12-07
 /// /// Update Notes:   Added dynamic storyPart count for each story displayed on the /stories page.
 /// ///                 Added @Transient partCount mapping and controller logic to populate story thread counts.
+/// Updated By:   Capstone Team
+/// Update Notes: partCount is now a persisted column (part_count) alongside lastPartAt (last_part_at).
+///               Both are maintained by StoryPartService when a StoryPart is saved,
+///               so the /stories listing no longer has to count parts per story.
+/// Updated By:   Capstone Team
+/// Update Notes: id now comes from the pooled story_seq sequence (allocationSize 50).
+/// Updated By:   Capstone Team
+/// Update Notes: Cached in the second-level "story" region (READ_WRITE). storyParts is not cached.
 ///
 /// ==========================================
 
@@ -17,16 +25,21 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Getter
 @Setter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "story")
 public class Story {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "story_seq")
+    @SequenceGenerator(name = "story_seq", sequenceName = "story_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -55,9 +68,13 @@ public class Story {
         storyParts.add(storyPart);
         storyPart.setStory(this);
     }
-    @Transient
+    // Maintained by StoryPartService (on the locked entity) whenever a part is appended
+    @Column(name = "part_count", nullable = false)
     private int partCount;
 
+    @Column(name = "last_part_at")
+    private LocalDateTime lastPartAt;
+
     public int getPartCount() { return partCount; }
     public void setPartCount(int partCount) { this.partCount = partCount; }
 
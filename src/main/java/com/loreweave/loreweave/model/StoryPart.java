@@ -8,6 +8,12 @@ package com.loreweave.loreweave.model;
 /// Updated By:   Jamie Coker on 2025-10-12
 ///Update Notes: Added author relationship (ManyToOne with User)
 ///            to enable point rewards via LoreVote transactions.
+/// Updated By:   Capstone Team
+/// Update Notes: Added unique (story_id, part_order) constraint so concurrent appends
+///               can never produce two parts with the same order.
+/// Updated By:   Capstone Team
+/// Update Notes: Pooled story_part_seq ids (allocationSize 50) replace IDENTITY so parts
+///               flushed together are sent as one JDBC batch.
 /// ==========================================
 
 
@@ -23,10 +29,17 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
+@Table(
+        name = "story_part",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_story_part_story_order", columnNames = {"story_id", "part_order"})
+        }
+)
 public class StoryPart {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "story_part_seq")
+    @SequenceGenerator(name = "story_part_seq", sequenceName = "story_part_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
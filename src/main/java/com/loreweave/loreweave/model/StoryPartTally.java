@@ -0,0 +1,49 @@
+/// ==========================================
+/// File Name:    StoryPartTally.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      JPA entity for story_part_tally: materialised vote counts for one
+///               StoryPart (positive, negative, score = positive - negative).
+///               Maintained by StoryPartTallyRepository.recordVote in the same
+///               transaction as each LoreVote insert, so reading a part's vote
+///               stats is a single primary-key lookup.
+/// ==========================================
+
+package com.loreweave.loreweave.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+@Getter
+@Entity
+@Table(name = "story_part_tally")
+public class StoryPartTally {
+
+    @Id
+    @Column(name = "story_part_id")
+    private Long storyPartId;
+
+    @Column(nullable = false)
+    private int positive;
+
+    @Column(nullable = false)
+    private int negative;
+
+    @Column(nullable = false)
+    private int score;
+
+    protected StoryPartTally() {}
+
+    private StoryPartTally(Long storyPartId) {
+        this.storyPartId = storyPartId;
+    }
+
+    // Tally for a part nobody has voted on yet (no row exists)
+    public static StoryPartTally empty(Long storyPartId) {
+        return new StoryPartTally(storyPartId);
+    }
+
+    public int getTotal() {
+        return positive + negative;
+    }
+}
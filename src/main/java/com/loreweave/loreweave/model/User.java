@@ -7,19 +7,32 @@
 /// Updated By:   Jamie Coker on 2025-10-19
 /// Update Notes: Added `enabled` field for email verification workflow.
 ///               Used by Spring Security to determine if a user can log in.
+/// Updated By:   Capstone Team
+/// Update Notes: id is drawn from user_seq in blocks of 50 instead of IDENTITY.
+/// Updated By:   Capstone Team
+/// Update Notes: Cached in the second-level "user" region (READ_WRITE).
+/// Updated By:   Capstone Team
+/// Update Notes: character is now the owning side of a user.character_id column, so a cached
+///               User resolves its character by id (from the "character" region) instead of a
+///               query on character.user_id every time it is loaded.
 /// ==========================================
 package com.loreweave.loreweave.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "`user`")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
 
     @Column()
@@ -37,7 +50,9 @@ public class User {
     @Column(unique = true, nullable = false)
     private String username;
 
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL)
+    // Kept next to character.user_id; set when the character is created
+    @OneToOne(cascade = CascadeType.ALL)
+    @JoinColumn(name = "character_id")
     private Character character;
 
     // >>> Field to track if user has verified email
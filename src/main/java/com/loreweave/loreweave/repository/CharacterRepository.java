@@ -11,18 +11,34 @@
 ///     Update discription: Added incrementLorePoints method to adjust lore points.
 ///                         Added sumVotesForCharacter method to total votes for a character.
 ///
+///             Updated By: Capstone Team
+///     Update discription: Added chunked lore point projections and a conditional correction
+///                         for LorePointReconciliationJob (lorePoints is the maintained value).
+///
+///             Updated By: Capstone Team
+///     Update discription: findByUser results are kept in the Hibernate query cache.
+///                         incrementLorePoints is now a native UPDATE with its own query
+///                         space: the JPQL bulk UPDATE cleared the whole "character" cache
+///                         region on every vote. The caller evicts the one character instead.
+///
 /// ==========================================
 package com.loreweave.loreweave.repository;
 
+import com.loreweave.loreweave.dto.character.LorePointsView;
 import com.loreweave.loreweave.model.User;
 import com.loreweave.loreweave.model.Character;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -33,19 +49,18 @@ public interface CharacterRepository extends JpaRepository<Character, Long> {
      * @param user the user associated with the character
      * @return Optional containing User if found
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Character> findByUser(User user);
     /**
-     * Increment the lore points of a character by a specified amount.
+     * Increment the lore points of a character by a specified amount. The query space names
+     * no mapped table, so Hibernate leaves the "character" cache region alone; the caller
+     * evicts this character's entry once the transaction has committed.
      * @param characterId the ID of the character
      * @param delta the amount to increment (can be negative)
      */
     @Modifying
-    @Transactional
-    @Query("""
-            update Character c 
-            set c.lorePoints = c.lorePoints + :delta 
-            where c.id = :id
-            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "character_lore_points"))
+    @Query(value = "UPDATE `character` SET lore_points = lore_points + :delta WHERE id = :id", nativeQuery = true)
     void incrementLorePoints(@Param("id") Long characterId, @Param("delta") int delta);
     /**
      * Sum all vote amounts for story parts contributed by a specific character.
@@ -60,4 +75,45 @@ public interface CharacterRepository extends JpaRepository<Character, Long> {
     """)
     int sumVotesForCharacter(@Param("characterId") Long characterId);
 
+    /**
+     * Stored lore points for the next chunk of characters, in id order.
+     * @param afterId last character ID of the previous chunk (0 to start)
+     */
+    @Query("""
+    select new com.loreweave.loreweave.dto.character.LorePointsView(c.id, c.lorePoints)
+    from Character c
+    where c.id > :afterId
+    order by c.id asc
+    """)
+    List<LorePointsView> findLorePointsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * LoreVote sums for a set of characters, one grouped query. Characters whose
+     * parts have no votes are not returned.
+     */
+    @Query("""
+    select new com.loreweave.loreweave.dto.character.LorePointsView(
+        sp.contributor.id, cast(coalesce(sum(lv.amount), 0) as Integer))
+    from LoreVote lv
+    join lv.storyPart sp
+    where sp.contributor.id in :characterIds
+    group by sp.contributor.id
+    """)
+    List<LorePointsView> sumVotesForCharacters(@Param("characterIds") Collection<Long> characterIds);
+
+    /**
+     * Correct a character's lore points, but only if they still hold the value the
+     * caller observed; a vote committed in between makes this a no-op.
+     * @return 1 if corrected, 0 if the value had moved on
+     */
+    @Modifying
+    @Query("""
+            update Character c
+            set c.lorePoints = :expected
+            where c.id = :id and c.lorePoints = :observed
+            """)
+    int correctLorePoints(@Param("id") Long characterId,
+                          @Param("observed") int observed,
+                          @Param("expected") int expected);
+
 }
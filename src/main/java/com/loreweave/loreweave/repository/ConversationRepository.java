@@ -0,0 +1,90 @@
+/// ==========================================
+/// File Name:    ConversationRepository.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Repository for private conversations (one row per user pair).
+///               Every query is driven by the (user_low_id, ...) or
+///               (user_high_id, ...) index.
+/// ==========================================
+
+package com.loreweave.loreweave.repository;
+
+import com.loreweave.loreweave.dto.message.ConversationView;
+import com.loreweave.loreweave.model.Conversation;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+
+    Optional<Conversation> findByUserLowIdAndUserHighId(Long userLowId, Long userHighId);
+
+    // Create the pair's row if it does not exist yet; safe under concurrent first messages
+    // (only this table changes, so cached entities and queries elsewhere stay valid)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "conversation"))
+    @Query(value = """
+            INSERT INTO conversation (user_low_id, user_high_id, last_seq, low_read_seq, high_read_seq)
+            VALUES (:low, :high, 0, 0, 0)
+            ON DUPLICATE KEY UPDATE id = id
+            """, nativeQuery = true)
+    int ensureExists(@Param("low") Long low, @Param("high") Long high);
+
+    // Lock the pair's row to hand out the next seq
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Conversation c where c.userLowId = :low and c.userHighId = :high")
+    Optional<Conversation> lockByPair(@Param("low") Long low, @Param("high") Long high);
+
+    // Conversations where the user is the low side (partner is the high side), with unread counts
+    @Query("""
+            select new com.loreweave.loreweave.dto.message.ConversationView(
+                p.username, p.username, c.lastMessageAt, c.lastSeq - c.lowReadSeq)
+            from Conversation c, User p
+            where c.userLowId = :userId and p.id = c.userHighId and c.lastSeq > 0
+        """)
+    List<ConversationView> findAsLowSide(@Param("userId") Long userId);
+
+    // Conversations where the user is the high side (partner is the low side); self-chats come from the low side
+    @Query("""
+            select new com.loreweave.loreweave.dto.message.ConversationView(
+                p.username, p.username, c.lastMessageAt, c.lastSeq - c.highReadSeq)
+            from Conversation c, User p
+            where c.userHighId = :userId and c.userLowId <> c.userHighId
+              and p.id = c.userLowId and c.lastSeq > 0
+        """)
+    List<ConversationView> findAsHighSide(@Param("userId") Long userId);
+
+    // Unread direct messages across all of a user's conversations (messages badge)
+    @Query("""
+            select coalesce(sum(c.lastSeq - c.lowReadSeq), 0) from Conversation c
+            where c.userLowId = (select u.id from User u where u.username = :username)
+        """)
+    long countUnreadAsLowSide(@Param("username") String username);
+
+    @Query("""
+            select coalesce(sum(c.lastSeq - c.highReadSeq), 0) from Conversation c
+            where c.userHighId = (select u.id from User u where u.username = :username)
+              and c.userLowId <> c.userHighId
+        """)
+    long countUnreadAsHighSide(@Param("username") String username);
+
+    // Mark a conversation read up to its latest message for one side
+    @Modifying
+    @Query("update Conversation c set c.lowReadSeq = c.lastSeq where c.id = :id and c.lowReadSeq < c.lastSeq")
+    int markReadByLowSide(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Conversation c set c.highReadSeq = c.lastSeq where c.id = :id and c.highReadSeq < c.lastSeq")
+    int markReadByHighSide(@Param("id") Long id);
+}
@@ -0,0 +1,46 @@
+/// ==========================================
+/// File Name:    NotificationArchiveRepository.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Repository for archived (retention-expired) notifications
+/// Updated By:   Capstone Team
+/// Update Notes: copyFromNotifications declares its query space (notification_archive).
+/// ==========================================
+
+package com.loreweave.loreweave.repository;
+
+import com.loreweave.loreweave.model.NotificationArchive;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface NotificationArchiveRepository extends JpaRepository<NotificationArchive, Long> {
+
+    /**
+     * Copy a chunk of read notifications into the archive with one INSERT ... SELECT.
+     * Must run in the transaction that then deletes the same ids from notification.
+     * @param ids        notification ids chosen by the retention job
+     * @param archivedAt time stamped on the archived rows
+     * @return rows copied
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "notification_archive"))
+    @Query(value = """
+            INSERT INTO notification_archive
+                (id, user_id, sender_id, message, link, created_at, group_key, group_count, archived_at)
+            SELECT n.id, n.user_id, n.sender_id, n.message, n.link, n.created_at, n.group_key, n.group_count, :archivedAt
+            FROM notification n
+            WHERE n.id IN (:ids) AND n.is_read = true
+            """, nativeQuery = true)
+    int copyFromNotifications(@Param("ids") Collection<Long> ids,
+                              @Param("archivedAt") LocalDateTime archivedAt);
+}
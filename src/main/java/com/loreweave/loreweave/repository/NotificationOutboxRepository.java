@@ -0,0 +1,46 @@
+/// ==========================================
+/// File Name:    NotificationOutboxRepository.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      JPA repository for NotificationOutbox rows awaiting dispatch
+/// ==========================================
+
+package com.loreweave.loreweave.repository;
+
+import com.loreweave.loreweave.model.NotificationOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Claim a batch of due rows, oldest first. Rows locked by another instance are
+    // skipped (FOR UPDATE SKIP LOCKED, lock timeout -2) rather than waited on.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT o FROM NotificationOutbox o
+            WHERE o.nextAttemptAt <= :now
+            ORDER BY o.id ASC
+            """)
+    List<NotificationOutbox> claimDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Creation time of the oldest undelivered row (for the lag gauge)
+    @Query("SELECT MIN(o.createdAt) FROM NotificationOutbox o")
+    Optional<LocalDateTime> findOldestCreatedAt();
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
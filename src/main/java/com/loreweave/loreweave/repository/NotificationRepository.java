@@ -11,19 +11,45 @@
 ///  Updated By:    Wyatt Bechtle
 ///  Update Notes:  Added an update method so the user can mark all 
 //                  unread notifications 
+///
+///  Updated By:    Capstone Team
+///  Update Notes:  Added grouped conversation queries for /messages and keyset-paged
+///                 per-direction thread queries on (recipient, sender, createdAt, id).
+///                 Added countByUserUsernameAndIsReadFalse for the unread badge cache.
+///                 Added findUnreadEventsAfter for SSE Last-Event-ID resume; it also returns
+///                 unread coalesced rows at or below the id so the resume covers folds.
+///                 Added findOpenGroup for coalescing bursts into one notification.
+///                 Added ownership-checked single-statement mark-read updates (one id,
+///                 a list of ids, or all) keyed by username, so no User/Notification load.
+///                 Added findExpiredIds/deleteReadByIdIn for NotificationRetentionJob.
+///                 Removed the conversation/thread queries: direct messages now live in
+///                 ConversationRepository/PrivateMessageRepository.
+///                 Split the resume query: findUnreadEventsAfter returns only newer rows, and
+///                 findUnreadFoldsUpTo the coalesced rows at or below the id, so old folds
+///                 cannot use up the replay limit meant for missed notifications.
+///                 findExpiredIds takes an upper id bound from findMaxIdCreatedBefore, so a
+///                 retention run never walks the recent rows. Added estimateRowCount
+///                 (information_schema estimate) for the table-size gauge instead of COUNT(*).
 /// ==========================================
 
 package com.loreweave.loreweave.repository;
 
+import com.loreweave.loreweave.dto.ws.NotificationEvent;
 import com.loreweave.loreweave.model.Notification;
 import com.loreweave.loreweave.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByUserAndIsRead(User user, boolean isRead);
@@ -31,6 +57,9 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     // Custom method to count unread notifications for a user
     long countByUserAndIsReadFalse(User user);
 
+    // Same count by recipient username, for UnreadCountCache (no User lookup first)
+    long countByUserUsernameAndIsReadFalse(String username);
+
     // Mark all unread notifications as read for a given user
     @Modifying
     @Transactional
@@ -40,4 +69,112 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
             where n.user = :user and n.isRead = false
         """)
     int markAllReadByUser(@Param("user") User user);
+
+    // Mark one notification read if it belongs to the user and is still unread (0 or 1 rows)
+    @Modifying
+    @Query("""
+            update Notification n
+            set n.isRead = true
+            where n.id = :id and n.isRead = false
+              and n.user.id = (select u.id from User u where u.username = :username)
+        """)
+    int markReadForUser(@Param("id") Long id, @Param("username") String username);
+
+    // Mark a batch of notifications read in one statement; ids owned by others are ignored
+    @Modifying
+    @Query("""
+            update Notification n
+            set n.isRead = true
+            where n.id in :ids and n.isRead = false
+              and n.user.id = (select u.id from User u where u.username = :username)
+        """)
+    int markReadForUser(@Param("ids") Collection<Long> ids, @Param("username") String username);
+
+    // Mark every unread notification of the user read
+    @Modifying
+    @Query("""
+            update Notification n
+            set n.isRead = true
+            where n.isRead = false
+              and n.user.id = (select u.id from User u where u.username = :username)
+        """)
+    int markAllReadForUser(@Param("username") String username);
+
+    // Recipient of a notification (only read when a conditional update matched nothing)
+    @Query("select n.user.username from Notification n where n.id = :id")
+    Optional<String> findRecipientUsername(@Param("id") Long id);
+
+    // Link of a notification, if it belongs to the user ("" when it has none)
+    @Query("select coalesce(n.link, '') from Notification n where n.id = :id and n.user.username = :username")
+    Optional<String> findLinkForUser(@Param("id") Long id, @Param("username") String username);
+
+    // Stream resume: unread notifications newer than an SSE Last-Event-ID, oldest first
+    @Query("""
+            select new com.loreweave.loreweave.dto.ws.NotificationEvent(
+                n.id, n.message, s.username, n.link, n.createdAt, n.updatedAt)
+            from Notification n
+            join n.sender s
+            where n.user.username = :username and n.isRead = false
+              and n.id > :afterId
+            order by n.id asc
+        """)
+    List<NotificationEvent> findUnreadEventsAfter(@Param("username") String username,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+
+    // Stream resume: unread coalesced notifications at or below the Last-Event-ID, newest
+    // first (folds keep their id, so they may have changed since the browser saw them)
+    @Query("""
+            select new com.loreweave.loreweave.dto.ws.NotificationEvent(
+                n.id, n.message, s.username, n.link, n.createdAt, n.updatedAt)
+            from Notification n
+            join n.sender s
+            where n.user.username = :username and n.isRead = false
+              and n.id <= :upToId and n.groupCount > 1
+            order by n.id desc
+        """)
+    List<NotificationEvent> findUnreadFoldsUpTo(@Param("username") String username,
+                                                @Param("upToId") Long upToId,
+                                                Pageable pageable);
+
+    // Newest unread notification of a coalescing group started inside the window, locked so
+    // two dispatchers folding into the same group cannot lose each other's counts
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select n from Notification n
+            where n.user.id = :userId and n.groupKey = :groupKey
+              and n.isRead = false and n.createdAt >= :since
+            order by n.createdAt desc, n.id desc
+        """)
+    List<Notification> findOpenGroup(@Param("userId") Long userId,
+                                     @Param("groupKey") String groupKey,
+                                     @Param("since") LocalDateTime since,
+                                     Pageable pageable);
+
+    // Retention: highest id created before the cutoff (idx_notification_created), read once per run
+    @Query("select max(n.id) from Notification n where n.createdAt < :cutoff")
+    Optional<Long> findMaxIdCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Retention: next chunk of read notifications created before the cutoff, keyset on id up to upToId
+    @Query("""
+            select n.id from Notification n
+            where n.id > :afterId and n.id <= :upToId and n.isRead = true and n.createdAt < :cutoff
+            order by n.id asc
+        """)
+    List<Long> findExpiredIds(@Param("afterId") long afterId,
+                              @Param("upToId") long upToId,
+                              @Param("cutoff") LocalDateTime cutoff,
+                              Pageable pageable);
+
+    // Table size for the retention gauge: InnoDB's estimate, no COUNT(*) scan (can be off by tens of percent)
+    @Query(value = """
+            SELECT TABLE_ROWS FROM information_schema.TABLES
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'notification'
+            """, nativeQuery = true)
+    Optional<Long> estimateRowCount();
+
+    // Remove a retention chunk; the is_read guard means an unread row is never deleted
+    @Modifying
+    @Query("delete from Notification n where n.id in :ids and n.isRead = true")
+    int deleteReadByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,26 @@
+/// ==========================================
+/// File Name:    PrivateMessageRepository.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Repository for direct messages. Thread pages are keyset range
+///               reads on the (conversation_id, seq) unique index.
+/// ==========================================
+
+package com.loreweave.loreweave.repository;
+
+import com.loreweave.loreweave.model.PrivateMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PrivateMessageRepository extends JpaRepository<PrivateMessage, Long> {
+
+    // Latest messages of a conversation, newest first
+    List<PrivateMessage> findByConversationIdOrderBySeqDesc(Long conversationId, Pageable pageable);
+
+    // Messages older than a seq, newest first
+    List<PrivateMessage> findByConversationIdAndSeqLessThanOrderBySeqDesc(Long conversationId, long seq, Pageable pageable);
+}
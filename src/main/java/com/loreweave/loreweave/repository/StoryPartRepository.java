@@ -21,11 +21,19 @@ package com.loreweave.loreweave.repository;
 ///  Update Notes:  Added a method to fetch the *latest* StoryPart (highest partOrder)
 ///                 for enforcing turn-based story writing. This prevents a user from
 ///                 submitting two consecutive StoryParts.
+///
+///  Updated By:    Capstone Team
+///  Update Notes:  Added fetchWindowByStoryId, a partOrder-range projection query so long
+///                 stories are read one bounded window at a time.
+///                 Added findLastPartAuthor (partOrder + author id only) to warm StoryLastAuthorIndex.
 /// ==========================================
 
 
 
+import com.loreweave.loreweave.dto.story.LastPartAuthorView;
+import com.loreweave.loreweave.dto.story.StoryPartSummaryView;
 import com.loreweave.loreweave.model.StoryPart;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -52,6 +60,32 @@ public interface StoryPartRepository extends JpaRepository<StoryPart, Long> {
             """)
     List<StoryPart> fetchByStoryIdOrderByPartOrderAsc(@Param("storyId") Long storyId);
 
+    // Window of parts after a given partOrder (projection only, content is not loaded).
+    // Used for paged story views and infinite scroll; size is bounded by the Pageable.
+    @Query("""
+            SELECT new com.loreweave.loreweave.dto.story.StoryPartSummaryView(
+                sp.id, sp.partOrder, u.username, sp.createdAt)
+            FROM StoryPart sp
+            LEFT JOIN sp.contributor c
+            LEFT JOIN c.user u
+            WHERE sp.story.id = :storyId
+              AND sp.partOrder > :afterOrder
+            ORDER BY sp.partOrder ASC
+            """)
+    List<StoryPartSummaryView> fetchWindowByStoryId(@Param("storyId") Long storyId,
+                                                    @Param("afterOrder") int afterOrder,
+                                                    Pageable pageable);
+
+    // Latest part's order and author id (call with PageRequest.ofSize(1)); no entity is loaded
+    @Query("""
+            SELECT new com.loreweave.loreweave.dto.story.LastPartAuthorView(sp.partOrder, a.id)
+            FROM StoryPart sp
+            LEFT JOIN sp.author a
+            WHERE sp.story.id = :storyId
+            ORDER BY sp.partOrder DESC
+            """)
+    List<LastPartAuthorView> findLastPartAuthor(@Param("storyId") Long storyId, Pageable pageable);
+
     // New method to find the maximum partOrder for a given story
     @Query("""
             select coalesce(max(sp.partOrder), 0) 
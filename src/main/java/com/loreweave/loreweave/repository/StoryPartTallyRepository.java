@@ -0,0 +1,46 @@
+/// ==========================================
+/// File Name:    StoryPartTallyRepository.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Repository for materialised StoryPart vote tallies. recordVote declares
+///               story_part_tally as its only query space, so a vote does not clear
+///               the second-level cache.
+/// ==========================================
+
+package com.loreweave.loreweave.repository;
+
+import com.loreweave.loreweave.model.StoryPartTally;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StoryPartTallyRepository extends JpaRepository<StoryPartTally, Long> {
+
+    /**
+     * Add one vote to a part's tally, creating the row on the first vote. A single
+     * atomic upsert, so concurrent votes on the same part never lose an update.
+     * Must run in the transaction that inserts the LoreVote.
+     * @param storyPartId the voted-on story part
+     * @param positive    1 for a positive vote, else 0
+     * @param negative    1 for a negative vote, else 0
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "story_part_tally"))
+    @Query(value = """
+            INSERT INTO story_part_tally (story_part_id, positive, negative, score)
+            VALUES (:storyPartId, :positive, :negative, :positive - :negative)
+            ON DUPLICATE KEY UPDATE
+                positive = positive + VALUES(positive),
+                negative = negative + VALUES(negative),
+                score    = score + VALUES(score)
+            """, nativeQuery = true)
+    int recordVote(@Param("storyPartId") Long storyPartId,
+                   @Param("positive") int positive,
+                   @Param("negative") int negative);
+}
@@ -11,13 +11,34 @@ package com.loreweave.loreweave.repository;
 ///  Update Notes:   queries added to fetch stories with creators and users
 ///                  and by id
 /// 
+///  Updated By:     Capstone Team
+///  Update Notes:   Added StorySummaryView projection queries for the /stories listing
+///                  and recordNewPart to maintain part_count/last_part_at.
+///                  Listing queries use keyset pagination on (lastUpdatedAt, id).
+///                  findByIdWithCreatorAndUser results are kept in the Hibernate query cache.
+///                  findByIdForUpdate locks the story row for appends and skips the
+///                  second-level cache, so part_count is always the committed value.
+///                  Removed recordNewPart: a bulk UPDATE clears the whole "story" cache
+///                  region, so StoryPartService now sets the counters on the locked entity.
+///                  Added findPartCountById: a scalar read of part_count, so StoryViewCache can
+///                  check a cached view without going through the second-level cache.
+/// 
 /// ==========================================
 
 
+import com.loreweave.loreweave.dto.story.StorySummaryView;
 import com.loreweave.loreweave.model.Story;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import java.time.LocalDateTime;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -55,6 +76,7 @@ public interface StoryRepository extends JpaRepository<Story, Long> {
     List<Story> findAllWithCreatorAndUserOrderByLastUpdatedAtDesc();
 
     // Fetch a story by ID with its creator and user
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("""
            SELECT s
            FROM Story s
@@ -63,4 +85,41 @@ public interface StoryRepository extends JpaRepository<Story, Long> {
            WHERE s.id = :id
            """)
     Optional<Story> findByIdWithCreatorAndUser(@Param("id") Long id);
-}
\ No newline at end of file
+
+    // Story row for an append: locked, and read from the database rather than the
+    // second-level cache, which may not have seen another instance's appends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"))
+    @Query("SELECT s FROM Story s WHERE s.id = :id")
+    Optional<Story> findByIdForUpdate(@Param("id") Long id);
+
+    // part_count straight from the row (a scalar query never touches the second-level cache)
+    @Query("SELECT s.partCount FROM Story s WHERE s.id = :id")
+    Optional<Integer> findPartCountById(@Param("id") Long id);
+
+    // First keyset page of the /stories listing (projection only, newest first)
+    @Query("""
+           SELECT new com.loreweave.loreweave.dto.story.StorySummaryView(
+               s.id, s.title, u.username, s.lastUpdatedAt, s.partCount, s.lastPartAt)
+           FROM Story s
+           LEFT JOIN s.creator c
+           LEFT JOIN c.user u
+           ORDER BY s.lastUpdatedAt DESC, s.id DESC
+           """)
+    List<StorySummaryView> findSummariesFirstPage(Pageable pageable);
+
+    // Next keyset page: stories strictly older than the (lastUpdatedAt, id) cursor
+    @Query("""
+           SELECT new com.loreweave.loreweave.dto.story.StorySummaryView(
+               s.id, s.title, u.username, s.lastUpdatedAt, s.partCount, s.lastPartAt)
+           FROM Story s
+           LEFT JOIN s.creator c
+           LEFT JOIN c.user u
+           WHERE s.lastUpdatedAt < :lastUpdatedAt
+              OR (s.lastUpdatedAt = :lastUpdatedAt AND s.id < :id)
+           ORDER BY s.lastUpdatedAt DESC, s.id DESC
+           """)
+    List<StorySummaryView> findSummariesAfter(@Param("lastUpdatedAt") LocalDateTime lastUpdatedAt,
+                                              @Param("id") Long id,
+                                              Pageable pageable);
+}
@@ -15,11 +15,16 @@ package com.loreweave.loreweave.repository;
 ///  *  Verified table name mapping to avoid H2 keyword conflict.
 /// Updated By:   Jamie Coker on 2025-10-19
 /// Update Notes: Added findByEmail() for email verification and duplicate checks.
+/// Updated By:   Capstone Team on 2026-10-18
+/// Update Notes: findByUsername() results are kept in the Hibernate query cache.
 /// ==========================================
 
 
 import com.loreweave.loreweave.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
@@ -31,6 +36,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @param username the username to look up
      * @return Optional containing User if found
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
 
     // >>>  Find user by email for registration and verification
@@ -0,0 +1,40 @@
+/// ==========================================
+/// File Name:    BcryptDelegatingPasswordEncoder.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      DelegatingPasswordEncoder with "bcrypt" as the only id, which also
+///               matches the unprefixed BCrypt hashes stored before ids were used.
+///               Those unprefixed hashes are only flagged for upgrade when their cost
+///               differs from the configured one; the plain delegating encoder flags
+///               every one of them, which would put a second BCrypt encode and a user
+///               write on each first login after deploy.
+/// ==========================================
+package com.loreweave.loreweave.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+public class BcryptDelegatingPasswordEncoder extends DelegatingPasswordEncoder {
+
+    // A bare BCrypt hash, e.g. $2a$10$ followed by the 53-character salt and digest
+    private static final Pattern UNPREFIXED_BCRYPT = Pattern.compile("\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+    private final BCryptPasswordEncoder bcrypt;
+
+    public BcryptDelegatingPasswordEncoder(BCryptPasswordEncoder bcrypt) {
+        super("bcrypt", Map.of("bcrypt", bcrypt));
+        setDefaultPasswordEncoderForMatches(bcrypt);
+        this.bcrypt = bcrypt;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String prefixEncodedPassword) {
+        if (prefixEncodedPassword != null && UNPREFIXED_BCRYPT.matcher(prefixEncodedPassword).matches()) {
+            return bcrypt.upgradeEncoding(prefixEncodedPassword);
+        }
+        return super.upgradeEncoding(prefixEncodedPassword);
+    }
+}
@@ -0,0 +1,24 @@
+/// ==========================================
+/// File Name:    CurrentUser.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Marks a controller parameter to be filled with the logged-in user by
+///               CurrentUserArgumentResolver. Declare it on a User parameter for the
+///               entity (loaded at most once per request) or on a CurrentUserRef
+///               parameter for ids only (usually served from the session, no query).
+///               Resolves to null for anonymous requests.
+/// ==========================================
+
+package com.loreweave.loreweave.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
@@ -0,0 +1,47 @@
+/// ==========================================
+/// File Name:    CurrentUserArgumentResolver.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Fills @CurrentUser User / @CurrentUserRef controller parameters from
+///               CurrentUserResolver (registered in WebMvcConfig).
+/// ==========================================
+
+package com.loreweave.loreweave.security;
+
+import com.loreweave.loreweave.model.User;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final CurrentUserResolver currentUserResolver;
+
+    public CurrentUserArgumentResolver(CurrentUserResolver currentUserResolver) {
+        this.currentUserResolver = currentUserResolver;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        Class<?> type = parameter.getParameterType();
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && (type == User.class || type == CurrentUserRef.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        if (parameter.getParameterType() == CurrentUserRef.class) {
+            return currentUserResolver.resolveRef(request, auth);
+        }
+        return currentUserResolver.resolveUser(request, auth);
+    }
+}
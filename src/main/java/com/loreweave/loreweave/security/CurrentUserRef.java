@@ -0,0 +1,19 @@
+/// ==========================================
+/// File Name:    CurrentUserRef.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Ids of the logged-in user and their character (null when the user has
+///               not created one yet). Small and immutable, so it can be kept in the
+///               HTTP session between requests.
+/// ==========================================
+
+package com.loreweave.loreweave.security;
+
+import java.io.Serializable;
+
+public record CurrentUserRef(Long userId, String username, Long characterId) implements Serializable {
+
+    public boolean hasCharacter() {
+        return characterId != null;
+    }
+}
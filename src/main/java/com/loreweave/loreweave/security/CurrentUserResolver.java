@@ -0,0 +1,104 @@
+/// ==========================================
+/// File Name:    CurrentUserResolver.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Resolves the logged-in user once per request instead of every handler
+///               calling userRepository.findByUsername(auth.getName()).
+///               - The User entity (with its character) is loaded at most once and kept
+///                 as a request attribute.
+///               - The ids (CurrentUserRef) are kept in the HTTP session for a short TTL,
+///                 so handlers that only need ids do no lookup at all.
+///               Call invalidate() after changing the user or their character.
+/// ==========================================
+
+package com.loreweave.loreweave.security;
+
+import com.loreweave.loreweave.model.User;
+import com.loreweave.loreweave.repository.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+@Component
+public class CurrentUserResolver {
+
+    static final String REQUEST_ATTRIBUTE = CurrentUserResolver.class.getName() + ".USER";
+    static final String SESSION_ATTRIBUTE = CurrentUserResolver.class.getName() + ".REF";
+
+    // Session snapshot plus the time it was taken (wall clock: sessions may be serialized)
+    private record CachedRef(CurrentUserRef ref, long loadedAtMillis) implements Serializable {
+    }
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+
+    public CurrentUserResolver(UserRepository userRepository,
+                               @Value("${loreweave.current-user.session-ttl:60s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    // Logged-in User entity (character loaded with it), or null for anonymous requests
+    public User resolveUser(HttpServletRequest request, Authentication auth) {
+        if (!isLoggedIn(auth)) {
+            return null;
+        }
+        Object loaded = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (loaded instanceof User user && user.getUsername().equals(auth.getName())) {
+            return user;
+        }
+        User user = userRepository.findByUsername(auth.getName()).orElse(null);
+        if (user != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, user);
+            remember(request, toRef(user));
+        }
+        return user;
+    }
+
+    // Ids of the logged-in user; served from the session while fresh, otherwise loads the user
+    public CurrentUserRef resolveRef(HttpServletRequest request, Authentication auth) {
+        if (!isLoggedIn(auth)) {
+            return null;
+        }
+        HttpSession session = request.getSession(false);
+        if (session != null && session.getAttribute(SESSION_ATTRIBUTE) instanceof CachedRef cached
+                && cached.ref().username().equals(auth.getName())
+                && System.currentTimeMillis() - cached.loadedAtMillis() < ttlMillis) {
+            return cached.ref();
+        }
+        User user = resolveUser(request, auth);
+        return user != null ? toRef(user) : null;
+    }
+
+    // Drops the request and session copies, e.g. after a profile edit or character creation
+    public void invalidate(HttpServletRequest request) {
+        request.removeAttribute(REQUEST_ATTRIBUTE);
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.removeAttribute(SESSION_ATTRIBUTE);
+        }
+    }
+
+    private void remember(HttpServletRequest request, CurrentUserRef ref) {
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.setAttribute(SESSION_ATTRIBUTE, new CachedRef(ref, System.currentTimeMillis()));
+        }
+    }
+
+    private static CurrentUserRef toRef(User user) {
+        return new CurrentUserRef(user.getId(), user.getUsername(),
+                user.getCharacter() != null ? user.getCharacter().getId() : null);
+    }
+
+    private static boolean isLoggedIn(Authentication auth) {
+        return auth != null && auth.isAuthenticated() && auth.getName() != null
+                && !(auth instanceof AnonymousAuthenticationToken);
+    }
+}
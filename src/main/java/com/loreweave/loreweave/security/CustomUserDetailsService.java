@@ -17,39 +17,74 @@ package com.loreweave.loreweave.security;
 /// Updated By:   Jamie Coker on 2025-10-19
 ///  Update Notes: Added .disabled(!user.isEnabled()) to prevent login
 ///                for unverified accounts (email not yet confirmed).
+/// Updated By:   Capstone Team on 2026-10-18
+///  Update Notes: Results go through UserDetailsCache, so repeated form and
+///                remember-me logins skip the user table while the entry is fresh.
+///                Implements UserDetailsPasswordService: after a successful login
+///                DaoAuthenticationProvider hands over a re-hashed password when the
+///                stored one uses an old format or BCrypt cost.
+/// Updated By:   Capstone Team on 2026-10-18
+///  Update Notes: updatePassword writes the new hash through the managed User instead
+///                of a bulk UPDATE, which evicted every user from the second-level cache.
 /// ==========================================
 
 
 import com.loreweave.loreweave.model.User;
 import com.loreweave.loreweave.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username)
             throws UsernameNotFoundException {
 
+        UserDetails cached = userDetailsCache.getUserFromCache(username);
+        if (cached != null) {
+            return cached;
+        }
+
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() ->
                         new UsernameNotFoundException("User not found: " + username));
 
-        return org.springframework.security.core.userdetails.User
+        UserDetails details = org.springframework.security.core.userdetails.User
                 .withUsername(user.getUsername())
                 .password(user.getPassword())
                 .roles("USER") 
                 .build();
+        userDetailsCache.putUserInCache(details);
+        return details;
+    }
 
-
+    // Stores the upgraded hash; the cache gets the new hash too so the upgrade is not repeated.
+    // Written through the entity so only this user's second-level cache entry changes
+    // (a bulk UPDATE would clear the whole user region)
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.findByUsername(user.getUsername())
+                .ifPresent(entity -> entity.setPassword(newPassword));
+        UserDetails updated = org.springframework.security.core.userdetails.User
+                .withUserDetails(user)
+                .password(newPassword)
+                .build();
+        userDetailsCache.putUserInCache(updated);
+        return updated;
     }
 }
@@ -0,0 +1,18 @@
+/// ==========================================
+/// File Name:    PasswordHashingBusyException.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Thrown by BoundedPasswordEncoder when the hashing pool and its queue
+///               are full (or the wait times out). An AuthenticationException, so a
+///               login attempt fails back to /login?error=true instead of a 500.
+/// ==========================================
+package com.loreweave.loreweave.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,64 @@
+/// ==========================================
+/// File Name:    UserDetailsCache.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Bounded, TTL-based UserCache for CustomUserDetailsService, keyed by
+///               username. Form logins and remember-me auto-logins after a deploy then
+///               cost at most one user-table read per user per TTL.
+///               Hands out copies: ProviderManager erases the password of the
+///               UserDetails it authenticated, which must not be the cached instance.
+///               Evicted on profile edits and email verification. Published to
+///               Micrometer as "userDetails" (hits, misses, evictions, size).
+/// ==========================================
+package com.loreweave.loreweave.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class UserDetailsCache implements UserCache {
+
+    private final Cache<String, UserDetails> users;
+
+    public UserDetailsCache(MeterRegistry meterRegistry,
+                            @Value("${loreweave.user-details-cache.max-size:10000}") long maxSize,
+                            @Value("${loreweave.user-details-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "userDetails");
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        UserDetails cached = username != null ? users.getIfPresent(username) : null;
+        return cached != null ? copy(cached) : null;
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        users.put(user.getUsername(), copy(user));
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        if (username != null) {
+            users.invalidate(username);
+        }
+    }
+
+    private static UserDetails copy(UserDetails user) {
+        return User.withUserDetails(user).build();
+    }
+}
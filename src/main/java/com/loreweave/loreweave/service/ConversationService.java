@@ -0,0 +1,177 @@
+/// ==========================================
+/// File Name:    ConversationService.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Direct messages: sending, the /messages conversation list, threads
+///               and unread counts. Messages live in their own store (Conversation +
+///               PrivateMessage), not in the notification table, so DM history,
+///               DM unread counts and notification badges each use their own small
+///               indexes. A conversation is the ordered user-id pair; each message
+///               gets the next per-conversation seq under a row lock on it, and
+///               each side's unread count is lastSeq - readSeq.
+///               Threads are keyset-paginated on seq (newest page first, "load older"
+///               by cursor). The navbar's unread total comes from UnreadMessageCountCache,
+///               which sending and marking read keep up to date.
+/// ==========================================
+package com.loreweave.loreweave.service;
+
+import com.loreweave.loreweave.dto.message.ConversationView;
+import com.loreweave.loreweave.dto.message.MessageCursor;
+import com.loreweave.loreweave.dto.message.ThreadMessageView;
+import com.loreweave.loreweave.dto.message.ThreadPage;
+import com.loreweave.loreweave.model.Conversation;
+import com.loreweave.loreweave.model.PrivateMessage;
+import com.loreweave.loreweave.model.User;
+import com.loreweave.loreweave.repository.ConversationRepository;
+import com.loreweave.loreweave.repository.PrivateMessageRepository;
+import com.loreweave.loreweave.repository.UserRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+public class ConversationService {
+
+    // Upper bound on messages returned per thread page
+    public static final int MAX_THREAD_PAGE_SIZE = 100;
+
+    private final ConversationRepository conversationRepository;
+    private final PrivateMessageRepository privateMessageRepository;
+    private final UserRepository userRepository;
+    private final UnreadMessageCountCache unreadMessageCountCache;
+
+    public ConversationService(ConversationRepository conversationRepository,
+                               PrivateMessageRepository privateMessageRepository,
+                               UserRepository userRepository,
+                               UnreadMessageCountCache unreadMessageCountCache) {
+        this.conversationRepository = conversationRepository;
+        this.privateMessageRepository = privateMessageRepository;
+        this.userRepository = userRepository;
+        this.unreadMessageCountCache = unreadMessageCountCache;
+    }
+
+    /**
+     * Append a message to the sender/recipient conversation, creating it on first use.
+     * The sender's read position moves to the new message; the recipient's unread total
+     * goes up by one once the transaction commits.
+     * @return the saved message
+     */
+    @Transactional
+    public PrivateMessage sendMessage(User sender, User recipient, String text) {
+        long low = Math.min(sender.getId(), recipient.getId());
+        long high = Math.max(sender.getId(), recipient.getId());
+
+        // Row lock on the pair serialises seq assignment for this conversation only
+        conversationRepository.ensureExists(low, high);
+        Conversation conversation = conversationRepository.lockByPair(low, high).orElseThrow();
+
+        long seq = conversation.getLastSeq() + 1;
+        LocalDateTime now = LocalDateTime.now();
+        conversation.setLastSeq(seq);
+        conversation.setLastMessageAt(now);
+        if (sender.getId() == low) {
+            conversation.setLowReadSeq(seq);
+        }
+        if (sender.getId() == high) {
+            conversation.setHighReadSeq(seq);
+        }
+        if (low != high) {
+            unreadMessageCountCache.increment(recipient.getUsername(), 1);
+        }
+        return privateMessageRepository.save(new PrivateMessage(conversation.getId(), seq, sender.getId(), text, now));
+    }
+
+    /**
+     * Conversations of a user, most recent first.
+     * @param user the logged-in user
+     * @return one entry per partner with the latest message time and unread count
+     */
+    @Transactional(readOnly = true)
+    public List<ConversationView> listConversations(User user) {
+        List<ConversationView> all = new ArrayList<>(conversationRepository.findAsLowSide(user.getId()));
+        all.addAll(conversationRepository.findAsHighSide(user.getId()));
+        all.sort(Comparator.comparing(ConversationView::lastMessageAt,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return all;
+    }
+
+    /**
+     * Mark the conversation with a partner read up to its latest message.
+     * @return true if the user had unread messages in it
+     */
+    @Transactional
+    public boolean markRead(User user, String partnerUsername) {
+        User partner = userRepository.findByUsername(partnerUsername).orElse(null);
+        if (partner == null) {
+            return false;
+        }
+        Conversation conversation = find(user, partner);
+        if (conversation == null) {
+            return false;
+        }
+        // The read positions as loaded give how many messages this clears from the user's total
+        long marked = 0;
+        if (user.getId().equals(conversation.getUserLowId())
+                && conversationRepository.markReadByLowSide(conversation.getId()) > 0) {
+            marked += conversation.getLastSeq() - conversation.getLowReadSeq();
+        }
+        if (user.getId().equals(conversation.getUserHighId())
+                && conversationRepository.markReadByHighSide(conversation.getId()) > 0) {
+            marked += conversation.getLastSeq() - conversation.getHighReadSeq();
+        }
+        unreadMessageCountCache.decrement(user.getUsername(), marked);
+        return marked > 0;
+    }
+
+    /**
+     * One page of the messages exchanged between a user and a partner, oldest first.
+     * A page is one range read on (conversation_id, seq), whatever the thread length.
+     * @param user            the logged-in user
+     * @param partnerUsername the other party
+     * @param before          cursor from a previous page, or null for the latest messages
+     * @param size            page size (clamped to 1..MAX_THREAD_PAGE_SIZE)
+     * @return the page; empty if the partner or conversation does not exist
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public ThreadPage getThreadPage(User user, String partnerUsername, String before, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_THREAD_PAGE_SIZE));
+        MessageCursor cursor = before == null || before.isBlank() ? null : MessageCursor.decode(before);
+
+        User partner = userRepository.findByUsername(partnerUsername).orElse(null);
+        Conversation conversation = partner != null ? find(user, partner) : null;
+        if (conversation == null) {
+            return new ThreadPage(List.of(), null);
+        }
+
+        // One extra row tells us whether older messages remain
+        PageRequest probe = PageRequest.ofSize(pageSize + 1);
+        List<PrivateMessage> rows = cursor == null
+                ? privateMessageRepository.findByConversationIdOrderBySeqDesc(conversation.getId(), probe)
+                : privateMessageRepository.findByConversationIdAndSeqLessThanOrderBySeqDesc(conversation.getId(), cursor.seq(), probe);
+
+        boolean hasOlder = rows.size() > pageSize;
+        List<PrivateMessage> page = new ArrayList<>(rows.subList(0, Math.min(pageSize, rows.size())));
+        String olderCursor = hasOlder ? new MessageCursor(page.get(page.size() - 1).getSeq()).encode() : null;
+        Collections.reverse(page);
+
+        List<ThreadMessageView> messages = page.stream()
+                .map(m -> new ThreadMessageView(m.getId(), m.getMessage(),
+                        m.getSenderId().equals(user.getId()) ? user.getUsername() : partner.getUsername(),
+                        m.getCreatedAt()))
+                .toList();
+        return new ThreadPage(messages, olderCursor);
+    }
+
+    private Conversation find(User user, User partner) {
+        return conversationRepository.findByUserLowIdAndUserHighId(
+                Math.min(user.getId(), partner.getId()),
+                Math.max(user.getId(), partner.getId())).orElse(null);
+    }
+}
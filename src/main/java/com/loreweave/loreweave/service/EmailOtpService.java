@@ -7,79 +7,195 @@
 /// Updated By:   Chris Ennis
 /// Updated On:   2025-11-08
 /// Update Notes: Added logging for OTP generation and verification.
+/// Updated By:   Capstone Team
+/// Updated On:   2026-10-18
+/// Update Notes: The OTP mail is queued on MailDispatcher (sent in the background with
+///               retry) instead of JavaMailSender.send on the request thread.
+/// Updated By:   Capstone Team
+/// Updated On:   2026-10-18
+/// Update Notes: OTPs live in a bounded Caffeine cache instead of an unbounded map that
+///               was only cleaned on verify:
+///               - one code per email, expired ttl after issue by Caffeine's timer wheel
+///                 (proactively, via the system scheduler), max-entries overall
+///               - a code is dropped after max-verify-attempts wrong guesses
+///               - resends per email are throttled by a token bucket (resend-burst codes,
+///                 then one per resend-interval); buckets are a bounded cache too
+///               - codes come from one shared SecureRandom
+///               Metrics: caches "emailOtp" / "emailOtpResend" (size, evictions, hits)
+///               and counter loreweave.otp.throttled.
 /// ==========================================
 package com.loreweave.loreweave.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class EmailOtpService {
 
     private static final Logger log = LoggerFactory.getLogger(EmailOtpService.class);
 
-    private final JavaMailSender mailSender;
-    private final Map<String, OtpEntry> otpStorage = new ConcurrentHashMap<>();
+    private static final SecureRandom RANDOM = new SecureRandom();
 
-    @Autowired
-    public EmailOtpService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    private final MailDispatcher mailDispatcher;
+    private final Duration ttl;
+    private final int maxVerifyAttempts;
+    private final int resendBurst;
+    private final Duration resendInterval;
+    private final Cache<String, OtpEntry> otpStorage;
+    private final Cache<String, ResendBucket> resendBuckets;
+    private final Counter throttled;
+
+    public EmailOtpService(MailDispatcher mailDispatcher,
+                           MeterRegistry meterRegistry,
+                           @Value("${loreweave.otp.ttl:5m}") Duration ttl,
+                           @Value("${loreweave.otp.max-entries:100000}") long maxEntries,
+                           @Value("${loreweave.otp.max-verify-attempts:5}") int maxVerifyAttempts,
+                           @Value("${loreweave.otp.resend-burst:3}") int resendBurst,
+                           @Value("${loreweave.otp.resend-interval:1m}") Duration resendInterval) {
+        this.mailDispatcher = mailDispatcher;
+        this.ttl = ttl;
+        this.maxVerifyAttempts = maxVerifyAttempts;
+        this.resendBurst = resendBurst;
+        this.resendInterval = resendInterval;
+
+        // Expires ttl after issue; recording a wrong guess keeps the remaining time
+        this.otpStorage = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<String, OtpEntry>() {
+                    @Override
+                    public long expireAfterCreate(String email, OtpEntry entry, long currentTime) {
+                        return ttl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String email, OtpEntry entry, long currentTime, long currentDuration) {
+                        return entry.failures() == 0 ? ttl.toNanos() : currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String email, OtpEntry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .scheduler(Scheduler.systemScheduler())
+                .recordStats()
+                .build();
+
+        // A bucket left alone for burst * interval is full again, so it can simply expire
+        this.resendBuckets = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(resendInterval.multipliedBy(resendBurst))
+                .scheduler(Scheduler.systemScheduler())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, otpStorage, "emailOtp");
+        CaffeineCacheMetrics.monitor(meterRegistry, resendBuckets, "emailOtpResend");
+        this.throttled = meterRegistry.counter("loreweave.otp.throttled");
+    }
+
+    private record OtpEntry(String otp, LocalDateTime expiry, int failures) {
     }
 
-    private static class OtpEntry {
-        String otp;
-        LocalDateTime expiry;
-        OtpEntry(String otp, LocalDateTime expiry) {
-            this.otp = otp;
-            this.expiry = expiry;
+    // Token bucket: resendBurst tokens, one more every resendInterval
+    private static final class ResendBucket {
+        private final int capacity;
+        private final long refillNanos;
+        private double tokens;
+        private long lastRefill;
+
+        ResendBucket(int capacity, Duration refillInterval) {
+            this.capacity = capacity;
+            this.refillNanos = refillInterval.toNanos();
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized boolean tryConsume() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (double) (now - lastRefill) / refillNanos);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
         }
     }
 
-    // Generate OTP and send via email
-    public void sendOtp(String email) {
-        String otp = String.format("%06d", new Random().nextInt(999999));
-        LocalDateTime expiryTime = LocalDateTime.now().plusMinutes(5);
-        otpStorage.put(email, new OtpEntry(otp, expiryTime));
-        log.info("OTP sent to {}. OTP: {}. Expires at: {}", email, otp, expiryTime);
+    /**
+     * Generate an OTP and queue it for sending; replaces any earlier code for the email.
+     * @param email the address to verify
+     * @return false if too many codes were requested for this email recently (nothing sent)
+     */
+    public boolean sendOtp(String email) {
+        ResendBucket bucket = resendBuckets.get(email, key -> new ResendBucket(resendBurst, resendInterval));
+        if (!bucket.tryConsume()) {
+            throttled.increment();
+            log.warn("OTP request for {} throttled (more than {} per {})", email, resendBurst, resendInterval);
+            return false;
+        }
+
+        String otp = String.format("%06d", RANDOM.nextInt(1_000_000));
+        LocalDateTime expiryTime = LocalDateTime.now().plus(ttl);
+        otpStorage.put(email, new OtpEntry(otp, expiryTime, 0));
+        log.info("OTP sent to {}. Expires at: {}", email, expiryTime);
 
         SimpleMailMessage message = new SimpleMailMessage();
         message.setTo(email);
         message.setSubject("Loreweave Email Verification Code");
-        message.setText("Your Loreweave verification code is: " + otp + "\n\nThis code expires in 5 minutes.");
-        mailSender.send(message);
+        message.setText("Your Loreweave verification code is: " + otp
+                + "\n\nThis code expires in " + ttl.toMinutes() + " minutes.");
+        if (!mailDispatcher.enqueue(message)) {
+            log.warn("Mail queue full; OTP mail to {} was not queued (user can request a resend)", email);
+        }
+        return true;
     }
 
     // Verify OTP for email
     public boolean verifyOtp(String email, String otpInput) {
-        OtpEntry entry = otpStorage.get(email);
+        OtpEntry entry = otpStorage.getIfPresent(email);
         if (entry == null) {
-            log.warn("Verification attempt for non-existent or already used OTP for email: {}", email);
+            log.warn("Verification attempt for non-existent, expired or already used OTP for email: {}", email);
             return false;
         }
-        log.info("Verification attempt for {}. Input OTP: {}. Stored OTP: {}. Expiry: {}. Current time: {}",
-                 email, otpInput, entry.otp, entry.expiry, LocalDateTime.now());
 
-        if (entry.expiry.isBefore(LocalDateTime.now())) {
-            log.warn("OTP for {} expired at {}. Current time: {}", email, entry.expiry, LocalDateTime.now());
-            otpStorage.remove(email);
-            return false;
-        }
-        boolean valid = entry.otp.equals(otpInput);
+        boolean valid = otpInput != null && MessageDigest.isEqual(
+                entry.otp().getBytes(StandardCharsets.US_ASCII),
+                otpInput.getBytes(StandardCharsets.US_ASCII));
         if (valid) {
             log.info("OTP for {} successfully verified.", email);
-            otpStorage.remove(email);
-        } else {
-            log.warn("Invalid OTP {} for email {}. Stored OTP: {}", otpInput, email, entry.otp);
+            otpStorage.invalidate(email);
+            return true;
         }
-        return valid;
+
+        // Count the wrong guess; the code is dropped once the attempts run out
+        otpStorage.asMap().computeIfPresent(email, (key, current) -> current.failures() + 1 >= maxVerifyAttempts
+                ? null
+                : new OtpEntry(current.otp(), current.expiry(), current.failures() + 1));
+        log.warn("Invalid OTP for email {} (attempt {} of {})", email, entry.failures() + 1, maxVerifyAttempts);
+        return false;
+    }
+
+    // Codes currently held, after applying pending expiry and size evictions
+    public long pendingCount() {
+        otpStorage.cleanUp();
+        return otpStorage.estimatedSize();
     }
 }
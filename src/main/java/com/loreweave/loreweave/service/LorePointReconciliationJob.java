@@ -0,0 +1,144 @@
+/// ==========================================
+/// File Name:    LorePointReconciliationJob.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Background check that Character.lorePoints (maintained incrementally
+///               by VoteController) still matches the sum of LoreVote amounts on the
+///               character's story parts. Walks characters in id-ordered chunks, each
+///               chunk in its own short transaction (one projection query for the
+///               stored values, one grouped query for the vote sums). Drift is logged
+///               and counted, and corrected when loreweave.lore-reconcile.fix=true.
+///               Corrections are conditional on the observed value, so a vote that
+///               commits mid-run is never overwritten.
+///
+///               Metrics:
+///                 loreweave.lorepoints.reconcile.drift (counter, characters found drifted)
+///                 loreweave.lorepoints.reconcile.fixed (counter, characters corrected)
+/// ==========================================
+package com.loreweave.loreweave.service;
+
+import com.loreweave.loreweave.dto.character.LorePointsView;
+import com.loreweave.loreweave.repository.CharacterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class LorePointReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(LorePointReconciliationJob.class);
+
+    private final CharacterRepository characterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final boolean fix;
+    private final Counter drift;
+    private final Counter fixed;
+
+    /**
+     * Outcome of one reconciliation pass.
+     * @param checked characters compared
+     * @param drifted characters whose stored lore points differed from their vote sum
+     * @param fixed   characters corrected
+     */
+    public record Result(int checked, int drifted, int fixed) {}
+
+    public LorePointReconciliationJob(CharacterRepository characterRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${loreweave.lore-reconcile.chunk-size:500}") int chunkSize,
+                                      @Value("${loreweave.lore-reconcile.fix:true}") boolean fix) {
+        this.characterRepository = characterRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.fix = fix;
+        this.drift = meterRegistry.counter("loreweave.lorepoints.reconcile.drift");
+        this.fixed = meterRegistry.counter("loreweave.lorepoints.reconcile.fixed");
+    }
+
+    @Scheduled(initialDelayString = "${loreweave.lore-reconcile.initial-delay-ms:600000}",
+               fixedDelayString = "${loreweave.lore-reconcile.interval-ms:3600000}")
+    public void scheduledRun() {
+        try {
+            Result result = reconcile();
+            if (result.drifted() > 0) {
+                log.warn("Lore point reconciliation: {} of {} characters drifted, {} fixed",
+                        result.drifted(), result.checked(), result.fixed());
+            } else {
+                log.debug("Lore point reconciliation: {} characters checked, no drift", result.checked());
+            }
+        } catch (Exception ex) {
+            log.warn("Lore point reconciliation failed", ex);
+        }
+    }
+
+    /**
+     * Compare every character's stored lore points with its vote sum, chunk by chunk.
+     * @return counts for the whole pass
+     */
+    public Result reconcile() {
+        long afterId = 0;
+        int checked = 0;
+        int drifted = 0;
+        int corrected = 0;
+
+        while (true) {
+            final long from = afterId;
+            Chunk chunk = transactionTemplate.execute(status -> reconcileChunk(from));
+            if (chunk == null || chunk.checked() == 0) {
+                break;
+            }
+            checked += chunk.checked();
+            drifted += chunk.drifted();
+            corrected += chunk.fixed();
+            if (chunk.checked() < chunkSize) {
+                break;
+            }
+            afterId = chunk.lastId();
+        }
+        return new Result(checked, drifted, corrected);
+    }
+
+    // One chunk's counts plus the keyset position for the next chunk
+    private record Chunk(int checked, int drifted, int fixed, long lastId) {}
+
+    private Chunk reconcileChunk(long afterId) {
+        List<LorePointsView> stored = characterRepository.findLorePointsAfter(afterId, PageRequest.ofSize(chunkSize));
+        if (stored.isEmpty()) {
+            return new Chunk(0, 0, 0, afterId);
+        }
+
+        Map<Long, Integer> sums = characterRepository
+                .sumVotesForCharacters(stored.stream().map(LorePointsView::characterId).toList())
+                .stream()
+                .collect(Collectors.toMap(LorePointsView::characterId, LorePointsView::lorePoints));
+
+        int drifted = 0;
+        int corrected = 0;
+        for (LorePointsView ch : stored) {
+            int expected = sums.getOrDefault(ch.characterId(), 0);
+            if (expected == ch.lorePoints()) {
+                continue;
+            }
+            drifted++;
+            drift.increment();
+            log.info("Character {} has {} lore points but votes sum to {}", ch.characterId(), ch.lorePoints(), expected);
+            if (fix && characterRepository.correctLorePoints(ch.characterId(), ch.lorePoints(), expected) == 1) {
+                corrected++;
+                fixed.increment();
+            }
+        }
+        return new Chunk(stored.size(), drifted, corrected, stored.get(stored.size() - 1).characterId());
+    }
+}
@@ -0,0 +1,235 @@
+/// ==========================================
+/// File Name:    MailDispatcher.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Sends outgoing mail off the request thread. enqueue() only adds the
+///               message to a bounded in-memory queue and returns, so an SMTP stall no
+///               longer holds a Tomcat worker during registration.
+///               A virtual-thread drainer takes up to batchSize due messages at a time
+///               and sends each batch over a single SMTP connection
+///               (JavaMailSender.send(SimpleMailMessage...)), with at most
+///               maxConnections batches in flight. The sends run on maxConnections
+///               platform threads: JavaMail blocks on the socket inside synchronized
+///               methods, which would pin virtual-thread carriers.
+///               Messages that fail are retried with exponential backoff; after
+///               maxAttempts (or a full queue) they are written to the dead-letter log
+///               ("com.loreweave.loreweave.mail.dead-letter", recipient and subject only:
+///               bodies carry one-time codes).
+///
+///               Metrics:
+///                 loreweave.mail.sent          (counter)
+///                 loreweave.mail.retried       (counter, per failed attempt that will be retried)
+///                 loreweave.mail.dead-lettered (counter, gave up or rejected)
+///                 loreweave.mail.queue.size    (gauge, queued and waiting for retry)
+/// ==========================================
+package com.loreweave.loreweave.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class MailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+    private static final Logger deadLetters = LoggerFactory.getLogger("com.loreweave.loreweave.mail.dead-letter");
+
+    // A message waiting to be sent, due at dueAtNanos (System.nanoTime)
+    private record QueuedMail(SimpleMailMessage message, int attempts, long dueAtNanos) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtNanos, ((QueuedMail) other).dueAtNanos);
+        }
+    }
+
+    private final JavaMailSender mailSender;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+
+    // DelayQueue is unbounded; the capacity is enforced on enqueue through the counter
+    private final DelayQueue<QueuedMail> queue = new DelayQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Semaphore connections;
+    private final ExecutorService senders;
+    private final Thread drainer;
+    private volatile boolean running = true;
+
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter deadLettered;
+
+    public MailDispatcher(JavaMailSender mailSender,
+                          MeterRegistry meterRegistry,
+                          @Value("${loreweave.mail.queue-capacity:1000}") int queueCapacity,
+                          @Value("${loreweave.mail.batch-size:20}") int batchSize,
+                          @Value("${loreweave.mail.max-connections:2}") int maxConnections,
+                          @Value("${loreweave.mail.max-attempts:5}") int maxAttempts,
+                          @Value("${loreweave.mail.retry-backoff:2s}") Duration retryBackoff) {
+        this.mailSender = mailSender;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.connections = new Semaphore(maxConnections);
+        this.senders = Executors.newFixedThreadPool(maxConnections,
+                Thread.ofPlatform().name("mail-sender-", 0).daemon(true).factory());
+
+        this.sent = meterRegistry.counter("loreweave.mail.sent");
+        this.retried = meterRegistry.counter("loreweave.mail.retried");
+        this.deadLettered = meterRegistry.counter("loreweave.mail.dead-lettered");
+        Gauge.builder("loreweave.mail.queue.size", queued, AtomicInteger::get)
+                .description("Mail messages queued or waiting for a retry")
+                .register(meterRegistry);
+
+        this.drainer = Thread.ofVirtual().name("mail-dispatcher").start(this::drain);
+    }
+
+    /**
+     * Queue a message for sending and return immediately.
+     * @param message the message to send
+     * @return false if the queue is full (the message is dead-lettered instead)
+     */
+    public boolean enqueue(SimpleMailMessage message) {
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            deadLetter(message, 0, "mail queue full");
+            return false;
+        }
+        queue.put(new QueuedMail(message, 0, System.nanoTime()));
+        return true;
+    }
+
+    // Messages queued or waiting for a retry
+    public int pendingCount() {
+        return queued.get();
+    }
+
+    private void drain() {
+        while (running) {
+            List<QueuedMail> batch = new ArrayList<>(batchSize);
+            try {
+                batch.add(queue.take());
+                QueuedMail next;
+                while (batch.size() < batchSize && (next = queue.poll()) != null) {
+                    batch.add(next);
+                }
+                queued.addAndGet(-batch.size());
+
+                connections.acquire();
+                try {
+                    senders.execute(() -> {
+                        try {
+                            send(batch);
+                        } finally {
+                            connections.release();
+                        }
+                    });
+                } catch (RejectedExecutionException ex) {
+                    connections.release();
+                    throw ex;
+                }
+            } catch (InterruptedException | RejectedExecutionException ex) {
+                // A batch already taken off the queue is no longer seen by shutdown()
+                batch.forEach(mail -> deadLetter(mail.message(), mail.attempts(), "application shutting down"));
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Mail dispatcher loop failed; continuing", ex);
+            }
+        }
+    }
+
+    // One SMTP connection per batch; only the messages that failed are retried
+    private void send(List<QueuedMail> batch) {
+        SimpleMailMessage[] messages = batch.stream().map(QueuedMail::message).toArray(SimpleMailMessage[]::new);
+        try {
+            mailSender.send(messages);
+            sent.increment(batch.size());
+        } catch (MailSendException ex) {
+            Map<Object, Exception> failedMessages = ex.getFailedMessages();
+            for (QueuedMail mail : batch) {
+                Exception cause = failedMessages.isEmpty() ? ex : failedMessages.get(mail.message());
+                if (cause == null) {
+                    sent.increment();
+                } else {
+                    retryOrDeadLetter(mail, cause);
+                }
+            }
+        } catch (MailParseException | MailPreparationException ex) {
+            // The message itself is broken; sending it again will not help
+            batch.forEach(mail -> deadLetter(mail.message(), mail.attempts() + 1, ex.getMessage()));
+        } catch (MailException ex) {
+            batch.forEach(mail -> retryOrDeadLetter(mail, ex));
+        }
+    }
+
+    private void retryOrDeadLetter(QueuedMail mail, Exception cause) {
+        int attempts = mail.attempts() + 1;
+        if (attempts >= maxAttempts || !running) {
+            deadLetter(mail.message(), attempts, cause.getMessage());
+            return;
+        }
+        long backoffNanos = retryBackoff.toNanos() << Math.min(attempts - 1, 16);
+        retried.increment();
+        log.warn("Mail to {} failed (attempt {}/{}), retrying in {} ms: {}",
+                recipients(mail.message()), attempts, maxAttempts,
+                TimeUnit.NANOSECONDS.toMillis(backoffNanos), cause.getMessage());
+        queued.incrementAndGet();
+        queue.put(new QueuedMail(mail.message(), attempts, System.nanoTime() + backoffNanos));
+    }
+
+    private void deadLetter(SimpleMailMessage message, int attempts, String reason) {
+        deadLettered.increment();
+        deadLetters.error("Undelivered mail to={} subject=\"{}\" attempts={} reason={}",
+                recipients(message), message.getSubject(), attempts, reason);
+    }
+
+    private static String recipients(SimpleMailMessage message) {
+        return message.getTo() != null ? Arrays.toString(message.getTo()) : "[]";
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        drainer.interrupt();
+        senders.shutdown();
+        senders.awaitTermination(5, TimeUnit.SECONDS);
+        for (QueuedMail mail : queue) {
+            deadLetter(mail.message(), mail.attempts(), "application shutting down");
+        }
+    }
+}
@@ -0,0 +1,347 @@
+/// ==========================================
+/// File Name:    NotificationDispatcher.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Background worker that drains the notification outbox. Due rows are
+///               claimed in batches, turned into Notification rows and deleted from
+///               the outbox in one transaction; the pushes are sent only
+///               after that transaction commits. A failing batch is retried row by
+///               row so one bad row cannot hold up the rest, and failed rows back off
+///               exponentially until maxAttempts, after which they are dropped.
+///               Woken right after commit by NotificationQueuedEvent, and by a poll
+///               as a fallback (other instances, retries, restarts).
+///               Delivered rows bump the recipient's UnreadCountCache entry and are
+///               pushed over WebSocket and SSE through NotificationPushService.
+///               Rows with a groupKey (vote bursts) fold into the recipient's newest
+///               unread notification of that group if it was started within the
+///               coalescing window: one row with a counter instead of one per event.
+///               The window runs from the group's first event (createdAt); each fold
+///               moves updatedAt and the sender to the latest event.
+///               A fold changes neither the unread count nor the badge, so it is
+///               sent to SSE streams only, as an update.
+///
+///               Metrics:
+///                 loreweave.notifications.outbox.delivered  (counter)
+///                 loreweave.notifications.outbox.coalesced  (counter, rows folded into another)
+///                 loreweave.notifications.outbox.failed     (counter, per failed attempt)
+///                 loreweave.notifications.outbox.dropped    (counter, gave up after maxAttempts)
+///                 loreweave.notifications.outbox.lag        (timer, outbox write -> notification insert)
+///                 loreweave.notifications.outbox.oldest.age (gauge, seconds, refreshed on each poll)
+/// ==========================================
+package com.loreweave.loreweave.service;
+
+import com.loreweave.loreweave.dto.ws.NotificationEvent;
+import com.loreweave.loreweave.event.NotificationQueuedEvent;
+import com.loreweave.loreweave.model.Notification;
+import com.loreweave.loreweave.model.NotificationOutbox;
+import com.loreweave.loreweave.repository.NotificationOutboxRepository;
+import com.loreweave.loreweave.repository.NotificationRepository;
+import com.loreweave.loreweave.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final NotificationPushService notificationPushService;
+    private final UnreadCountCache unreadCountCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration coalesceWindow;
+
+    // One worker thread; a wake-up while it is draining queues at most one more drain
+    private final ExecutorService worker =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("notification-dispatcher").factory());
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+
+    private final Counter delivered;
+    private final Counter coalesced;
+    private final Counter failed;
+    private final Counter dropped;
+    private final Timer lag;
+    private final AtomicLong oldestAgeSeconds = new AtomicLong();
+
+    public NotificationDispatcher(NotificationOutboxRepository outboxRepository,
+                                  NotificationRepository notificationRepository,
+                                  UserRepository userRepository,
+                                  NotificationPushService notificationPushService,
+                                  UnreadCountCache unreadCountCache,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${loreweave.notification-outbox.batch-size:100}") int batchSize,
+                                  @Value("${loreweave.notification-outbox.max-attempts:10}") int maxAttempts,
+                                  @Value("${loreweave.notification-outbox.retry-backoff:5s}") Duration retryBackoff,
+                                  @Value("${loreweave.notification-outbox.coalesce-window:15m}") Duration coalesceWindow) {
+        this.outboxRepository = outboxRepository;
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.notificationPushService = notificationPushService;
+        this.unreadCountCache = unreadCountCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.coalesceWindow = coalesceWindow;
+
+        this.delivered = meterRegistry.counter("loreweave.notifications.outbox.delivered");
+        this.coalesced = meterRegistry.counter("loreweave.notifications.outbox.coalesced");
+        this.failed = meterRegistry.counter("loreweave.notifications.outbox.failed");
+        this.dropped = meterRegistry.counter("loreweave.notifications.outbox.dropped");
+        this.lag = Timer.builder("loreweave.notifications.outbox.lag")
+                .description("Time from outbox write to notification insert")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("loreweave.notifications.outbox.oldest.age", oldestAgeSeconds, AtomicLong::get)
+                .description("Age in seconds of the oldest undelivered outbox row")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    // The writing transaction has committed, so its outbox row is now visible
+    @TransactionalEventListener
+    public void onNotificationQueued(NotificationQueuedEvent event) {
+        wake();
+    }
+
+    // Fallback poll: rows from other instances, rows waiting out a retry backoff, rows left by a restart
+    @Scheduled(fixedDelayString = "${loreweave.notification-outbox.poll-interval-ms:5000}")
+    public void poll() {
+        oldestAgeSeconds.set(outboxRepository.findOldestCreatedAt()
+                .map(oldest -> Math.max(0, Duration.between(oldest, LocalDateTime.now()).toSeconds()))
+                .orElse(0L));
+        wake();
+    }
+
+    /**
+     * Ask the worker to drain the outbox. Never blocks the caller.
+     */
+    public void wake() {
+        if (drainQueued.compareAndSet(false, true)) {
+            try {
+                worker.execute(this::drain);
+            } catch (RuntimeException ex) {
+                drainQueued.set(false);    // shutting down; the next instance start picks the rows up
+            }
+        }
+    }
+
+    // Keep going while whole batches are delivered; anything else waits for the next wake-up or poll
+    void drain() {
+        drainQueued.set(false);
+        try {
+            while (dispatchBatch() == batchSize) {
+                // more rows are probably waiting
+            }
+        } catch (Exception ex) {
+            log.warn("Notification outbox drain failed; will retry on next poll", ex);
+        }
+    }
+
+    /**
+     * Dispatch one batch of due outbox rows.
+     * @return number of rows delivered
+     */
+    int dispatchBatch() {
+        List<Long> claimedIds = new ArrayList<>();
+        List<Delivered> deliveredRows;
+        try {
+            deliveredRows = transactionTemplate.execute(status -> {
+                List<NotificationOutbox> rows = outboxRepository.claimDue(LocalDateTime.now(), PageRequest.ofSize(batchSize));
+                rows.forEach(row -> claimedIds.add(row.getId()));
+                if (rows.isEmpty()) {
+                    return List.<Delivered>of();
+                }
+                List<Delivered> done = deliver(rows);
+                outboxRepository.deleteByIdIn(claimedIds);
+                return done;
+            });
+        } catch (RuntimeException ex) {
+            // The whole batch rolled back; deliver what we can one row at a time
+            log.debug("Outbox batch of {} failed, falling back to single rows", claimedIds.size(), ex);
+            deliveredRows = new ArrayList<>();
+            for (Long id : claimedIds) {
+                Delivered one = dispatchOne(id);
+                if (one != null) {
+                    deliveredRows.add(one);
+                }
+            }
+        }
+
+        // Committed: now it is safe to tell the recipients
+        int rowCount = 0;
+        for (Delivered d : deliveredRows) {
+            NotificationOutbox latest = d.rows().get(d.rows().size() - 1);
+            LocalDateTime now = LocalDateTime.now();
+            d.rows().forEach(row -> lag.record(Duration.between(row.getCreatedAt(), now)));
+            rowCount += d.rows().size();
+
+            Notification n = d.notification();
+            NotificationEvent event = new NotificationEvent(
+                    n.getId(), n.getMessage(), latest.getSenderUsername(), n.getLink(),
+                    n.getCreatedAt(), n.getUpdatedAt());
+            if (d.folded()) {
+                notificationPushService.pushUpdate(latest.getRecipientUsername(), event);
+            } else {
+                unreadCountCache.increment(latest.getRecipientUsername(), 1);
+                notificationPushService.push(latest.getRecipientUsername(), event);
+            }
+        }
+        delivered.increment(rowCount);
+        return rowCount;
+    }
+
+    // Outbox rows (oldest first) and the notification they became or were folded into
+    private record Delivered(List<NotificationOutbox> rows, Notification notification, boolean folded) {}
+
+    // Deliver a single row in its own transaction; reschedule it on failure
+    private Delivered dispatchOne(Long id) {
+        try {
+            return transactionTemplate.execute(status -> {
+                NotificationOutbox row = outboxRepository.findById(id).orElse(null);
+                if (row == null) {
+                    return null;                      // already delivered by another instance
+                }
+                Delivered done = deliver(List.of(row)).get(0);
+                outboxRepository.delete(row);
+                return done;
+            });
+        } catch (RuntimeException ex) {
+            recordFailure(id, ex);
+            return null;
+        }
+    }
+
+    // Inside the dispatch transaction: plain rows become new notifications in one saveAll;
+    // grouped rows are folded per (recipient, groupKey)
+    private List<Delivered> deliver(List<NotificationOutbox> rows) {
+        List<NotificationOutbox> plain = new ArrayList<>();
+        Map<List<Object>, List<NotificationOutbox>> groups = new LinkedHashMap<>();
+        for (NotificationOutbox row : rows) {
+            if (row.getGroupKey() == null) {
+                plain.add(row);
+            } else {
+                groups.computeIfAbsent(List.of(row.getRecipientId(), row.getGroupKey()), k -> new ArrayList<>()).add(row);
+            }
+        }
+
+        List<Delivered> done = new ArrayList<>(plain.size() + groups.size());
+        if (!plain.isEmpty()) {
+            List<Notification> saved = notificationRepository.saveAll(plain.stream().map(this::toNotification).toList());
+            for (int i = 0; i < plain.size(); i++) {
+                done.add(new Delivered(List.of(plain.get(i)), saved.get(i), false));
+            }
+        }
+        for (List<NotificationOutbox> burst : groups.values()) {
+            done.add(coalesce(burst));
+        }
+        return done;
+    }
+
+    // Fold a burst of one group into the open unread notification, or start a new one
+    private Delivered coalesce(List<NotificationOutbox> burst) {
+        NotificationOutbox latest = burst.get(burst.size() - 1);
+        Notification open = notificationRepository.findOpenGroup(
+                        latest.getRecipientId(), latest.getGroupKey(),
+                        LocalDateTime.now().minus(coalesceWindow), PageRequest.ofSize(1))
+                .stream().findFirst().orElse(null);
+
+        if (open == null && burst.size() == 1) {
+            return new Delivered(burst, notificationRepository.save(toNotification(latest)), false);
+        }
+
+        // createdAt stays at the first event so the window does not slide; the sender and
+        // updatedAt follow the latest one
+        Notification target = open != null ? open : toNotification(burst.get(0));
+        int count = (open != null ? open.getGroupCount() : 0) + burst.size();
+        target.setGroupCount(count);
+        target.setMessage(groupMessage(latest, count));
+        target.setSender(userRepository.getReferenceById(latest.getSenderId()));
+        target.setUpdatedAt(latest.getCreatedAt());
+        coalesced.increment(open != null ? burst.size() : burst.size() - 1);
+        return new Delivered(burst, notificationRepository.save(target), open != null);
+    }
+
+    private static String groupMessage(NotificationOutbox latest, int count) {
+        if (latest.getGroupMessage() == null) {
+            return latest.getMessage();
+        }
+        String message = latest.getGroupMessage()
+                .replace("{count}", String.valueOf(count))
+                .replace("{sender}", latest.getSenderUsername());
+        return message.length() > 255 ? message.substring(0, 255) : message;
+    }
+
+    private void recordFailure(Long id, Exception cause) {
+        failed.increment();
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.findById(id).ifPresent(row -> {
+                int attempts = row.getAttempts() + 1;
+                if (attempts >= maxAttempts) {
+                    log.warn("Dropping notification outbox row {} for user {} after {} attempts",
+                            id, row.getRecipientId(), attempts, cause);
+                    dropped.increment();
+                    outboxRepository.delete(row);
+                    return;
+                }
+                // Exponential backoff: retryBackoff, 2x, 4x, ... (capped at 2^10)
+                Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 10));
+                row.setAttempts(attempts);
+                row.setNextAttemptAt(LocalDateTime.now().plus(delay));
+                String error = String.valueOf(cause.getMessage());
+                row.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+            }));
+        } catch (RuntimeException ex) {
+            log.warn("Could not reschedule notification outbox row {}", id, ex);
+        }
+    }
+
+    private Notification toNotification(NotificationOutbox row) {
+        // References only: the ids are known, so no User rows are loaded
+        Notification notification = new Notification(
+                userRepository.getReferenceById(row.getRecipientId()),
+                userRepository.getReferenceById(row.getSenderId()),
+                row.getMessage(),
+                row.getLink());
+        notification.setCreatedAt(row.getCreatedAt());
+        notification.setUpdatedAt(row.getCreatedAt());
+        notification.setGroupKey(row.getGroupKey());
+        return notification;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        worker.shutdown();
+        worker.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,70 @@
+/// ==========================================
+/// File Name:    NotificationPushService.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Single push path for a newly persisted notification: the STOMP
+///               /user/queue/notifications destination and the SSE stream.
+///               Best-effort; the notification row is already committed.
+///               Updates to an existing notification (coalesced bursts) go to SSE
+///               streams only: they change no badge, so WebSocket clients skip them.
+///               Direct messages go to /user/queue/messages and a "message" SSE event.
+/// ==========================================
+package com.loreweave.loreweave.service;
+
+import com.loreweave.loreweave.dto.ws.NotificationEvent;
+import com.loreweave.loreweave.dto.ws.NotificationView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+@Service
+public class NotificationPushService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationPushService.class);
+
+    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final NotificationStreamService notificationStreamService;
+
+    public NotificationPushService(SimpMessagingTemplate simpMessagingTemplate,
+                                   NotificationStreamService notificationStreamService) {
+        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.notificationStreamService = notificationStreamService;
+    }
+
+    /**
+     * Push a committed notification to its recipient over WebSocket and SSE.
+     * @param recipientUsername the recipient
+     * @param event             the notification (id, message, sender, link, time)
+     */
+    public void push(String recipientUsername, NotificationEvent event) {
+        try {
+            simpMessagingTemplate.convertAndSendToUser(
+                    recipientUsername,
+                    "/queue/notifications",
+                    new NotificationView(event.message(), event.from(), event.createdAt().toString()));
+        } catch (Exception e) {
+            log.debug("WebSocket push to {} failed", recipientUsername, e);
+        }
+        notificationStreamService.publish(recipientUsername, event);
+    }
+
+    /**
+     * Tell open SSE streams that an existing unread notification changed (new count/message).
+     */
+    public void pushUpdate(String recipientUsername, NotificationEvent event) {
+        notificationStreamService.publishUpdate(recipientUsername, event);
+    }
+
+    /**
+     * Push a committed direct message to its recipient over WebSocket and SSE.
+     */
+    public void pushMessage(String recipientUsername, NotificationView message) {
+        try {
+            simpMessagingTemplate.convertAndSendToUser(recipientUsername, "/queue/messages", message);
+        } catch (Exception e) {
+            log.debug("WebSocket message push to {} failed", recipientUsername, e);
+        }
+        notificationStreamService.publishMessage(recipientUsername, message);
+    }
+}
@@ -0,0 +1,155 @@
+/// ==========================================
+/// File Name:    NotificationRetentionJob.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Retention for the notification table, which otherwise only grows.
+///               Read notifications older than loreweave.notification-retention.max-age
+///               are moved to notification_archive (or just deleted when archive=false).
+///               Walks the table in id-ordered chunks, each chunk in its own short
+///               transaction (select ids, INSERT ... SELECT, DELETE by id), so row locks
+///               are only ever held on one chunk. Unread notifications are never
+///               touched. (Direct messages are in private_message and not affected.)
+///
+///               Metrics:
+///                 loreweave.notifications.retention.archived (counter, rows copied to the archive)
+///                 loreweave.notifications.retention.deleted  (counter, rows removed)
+///                 loreweave.notifications.table.rows         (gauge, estimated rows after the last run)
+///
+/// Updated By:   Capstone Team
+/// Update Notes: The table-size gauge reads InnoDB's estimate from information_schema
+///               instead of an exact COUNT(*) scan every run. Each run now captures
+///               max(id) of the rows created before the cutoff once, and stops its
+///               chunk walk there instead of scanning the recent rows at the end.
+/// ==========================================
+package com.loreweave.loreweave.service;
+
+import com.loreweave.loreweave.repository.NotificationArchiveRepository;
+import com.loreweave.loreweave.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class NotificationRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionJob.class);
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final int chunkSize;
+    private final boolean archive;
+    private final Counter archived;
+    private final Counter deleted;
+    private final AtomicLong tableRows = new AtomicLong();
+
+    /**
+     * Outcome of one retention pass.
+     * @param archived rows copied to notification_archive
+     * @param deleted  rows removed from notification
+     */
+    public record Result(int archived, int deleted) {}
+
+    public NotificationRetentionJob(NotificationRepository notificationRepository,
+                                    NotificationArchiveRepository archiveRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${loreweave.notification-retention.enabled:true}") boolean enabled,
+                                    @Value("${loreweave.notification-retention.max-age:90d}") Duration maxAge,
+                                    @Value("${loreweave.notification-retention.chunk-size:1000}") int chunkSize,
+                                    @Value("${loreweave.notification-retention.archive:true}") boolean archive) {
+        this.notificationRepository = notificationRepository;
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.chunkSize = chunkSize;
+        this.archive = archive;
+        this.archived = meterRegistry.counter("loreweave.notifications.retention.archived");
+        this.deleted = meterRegistry.counter("loreweave.notifications.retention.deleted");
+        Gauge.builder("loreweave.notifications.table.rows", tableRows, AtomicLong::get)
+                .description("Estimated rows in the notification table after the last retention run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${loreweave.notification-retention.initial-delay-ms:900000}",
+               fixedDelayString = "${loreweave.notification-retention.interval-ms:3600000}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Result result = purge(LocalDateTime.now().minus(maxAge));
+            notificationRepository.estimateRowCount().ifPresent(tableRows::set);
+            if (result.deleted() > 0) {
+                log.info("Notification retention: {} rows removed ({} archived), about {} remain",
+                        result.deleted(), result.archived(), tableRows.get());
+            }
+        } catch (Exception ex) {
+            log.warn("Notification retention failed", ex);
+        }
+    }
+
+    /**
+     * Archive/delete every read notification created before the cutoff, chunk by chunk.
+     * @param cutoff rows created before this time are eligible
+     * @return counts for the whole pass
+     */
+    public Result purge(LocalDateTime cutoff) {
+        // Rows inserted during the run are newer than the cutoff anyway; never look past this id
+        Long upToId = notificationRepository.findMaxIdCreatedBefore(cutoff).orElse(null);
+        if (upToId == null) {
+            return new Result(0, 0);
+        }
+
+        long afterId = 0;
+        int totalArchived = 0;
+        int totalDeleted = 0;
+
+        while (true) {
+            final long from = afterId;
+            Chunk chunk = transactionTemplate.execute(status -> purgeChunk(from, upToId, cutoff));
+            if (chunk == null || chunk.selected() == 0) {
+                break;
+            }
+            totalArchived += chunk.archived();
+            totalDeleted += chunk.deleted();
+            if (chunk.selected() < chunkSize) {
+                break;
+            }
+            afterId = chunk.lastId();
+        }
+        return new Result(totalArchived, totalDeleted);
+    }
+
+    // One chunk's counts plus the keyset position for the next chunk
+    private record Chunk(int selected, int archived, int deleted, long lastId) {}
+
+    private Chunk purgeChunk(long afterId, long upToId, LocalDateTime cutoff) {
+        List<Long> ids = notificationRepository.findExpiredIds(afterId, upToId, cutoff, PageRequest.ofSize(chunkSize));
+        if (ids.isEmpty()) {
+            return new Chunk(0, 0, 0, afterId);
+        }
+
+        int copied = archive ? archiveRepository.copyFromNotifications(ids, LocalDateTime.now()) : 0;
+        int removed = notificationRepository.deleteReadByIdIn(ids);
+        archived.increment(copied);
+        deleted.increment(removed);
+        return new Chunk(ids.size(), copied, removed, ids.get(ids.size() - 1));
+    }
+}
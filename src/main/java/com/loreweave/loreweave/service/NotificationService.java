@@ -7,17 +7,30 @@
 /// 
 ///  Updated By:    Wyatt Bechtle
 ///  Update Notes:  Added method to get count of unread notifications for a user
+///
+///  Updated By:    Capstone Team
+///  Update Notes:  Added queueNotification, which writes to the notification outbox in the
+///                 caller's transaction; NotificationDispatcher inserts the Notification and
+///                 sends the WebSocket push after commit.
+///                 createNotification bumps UnreadCountCache for the recipient.
+///                 Added queueGroupedNotification for notifications that coalesce into
+///                 one counter notification per group (vote bursts).
 ///  
 /// ==========================================
 /// ==========================================
 
 package com.loreweave.loreweave.service;
 
+import com.loreweave.loreweave.event.NotificationQueuedEvent;
 import com.loreweave.loreweave.model.Notification;
+import com.loreweave.loreweave.model.NotificationOutbox;
 import com.loreweave.loreweave.model.User;
+import com.loreweave.loreweave.repository.NotificationOutboxRepository;
 import com.loreweave.loreweave.repository.NotificationRepository;
 //import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -25,13 +38,57 @@ import java.util.List;
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public NotificationService(NotificationRepository notificationRepository) {
+    private final UnreadCountCache unreadCountCache;
+
+    public NotificationService(NotificationRepository notificationRepository,
+                               NotificationOutboxRepository notificationOutboxRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               UnreadCountCache unreadCountCache) {
         this.notificationRepository = notificationRepository;
+        this.notificationOutboxRepository = notificationOutboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.unreadCountCache = unreadCountCache;
     }
 
     public Notification createNotification(Notification notification) {
-        return notificationRepository.save(notification);
+        Notification saved = notificationRepository.save(notification);
+        if (!saved.isRead() && saved.getUser() != null) {
+            unreadCountCache.increment(saved.getUser().getUsername(), 1);
+        }
+        return saved;
+    }
+
+    /**
+     * Queue a notification as part of the current transaction. It is only delivered
+     * (Notification row + WebSocket push) if that transaction commits.
+     * @param recipient user to notify
+     * @param sender    user who triggered the notification
+     * @param message   notification text
+     * @param link      page the notification links to (may be null)
+     */
+    @Transactional
+    public void queueNotification(User recipient, User sender, String message, String link) {
+        NotificationOutbox queued = notificationOutboxRepository.save(new NotificationOutbox(recipient, sender, message, link));
+        eventPublisher.publishEvent(new NotificationQueuedEvent(queued.getId()));
+    }
+
+    /**
+     * Queue a notification that folds into the recipient's open unread notification of the
+     * same group (within the coalescing window) instead of adding a new row.
+     * @param groupKey     coalescing group, e.g. "vote:{storyPartId}:{type}"
+     * @param groupMessage text once folded; {count} and {sender} are filled in on dispatch
+     */
+    @Transactional
+    public void queueGroupedNotification(User recipient, User sender, String message, String link,
+                                         String groupKey, String groupMessage) {
+        NotificationOutbox row = new NotificationOutbox(recipient, sender, message, link);
+        row.setGroupKey(groupKey);
+        row.setGroupMessage(groupMessage);
+        NotificationOutbox queued = notificationOutboxRepository.save(row);
+        eventPublisher.publishEvent(new NotificationQueuedEvent(queued.getId()));
     }
 
     public List<Notification> getUnreadNotifications(User user) {
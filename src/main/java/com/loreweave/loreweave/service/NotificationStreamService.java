@@ -0,0 +1,312 @@
+/// ==========================================
+/// File Name:    NotificationStreamService.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Server-Sent Events fan-out for notifications. Keeps the open
+///               SseEmitters per username and sends each new notification to
+///               them as a delta (event id = notification id). A reconnecting
+///               browser sends Last-Event-ID and gets only the unread
+///               notifications it missed, so idle tabs cost an open async
+///               connection instead of repeated unread queries. Each stream has
+///               its own queue, drained by one virtual thread at a time, so a
+///               slow client never stalls the caller and events on one stream
+///               always go out in the order they were published. Live events are
+///               held in that queue until the Last-Event-ID replay has been sent,
+///               and any the replay already covered are skipped. A stream more
+///               than max-pending events behind is closed; the browser reconnects
+///               and resumes from its Last-Event-ID.
+///               A periodic comment line keeps proxies from closing idle streams
+///               and clears out dead connections. Updates to an existing
+///               notification (coalesced vote bursts) are sent without an id so
+///               they never move a browser's Last-Event-ID backwards; a resume
+///               re-sends every unread coalesced notification at or below the
+///               Last-Event-ID as an update, since the browser may have missed
+///               folds into it (applying one it already has changes nothing). Direct
+///               messages are sent the same way as "message" events (no replay:
+///               they are read from the conversation itself).
+///
+///               Metrics: loreweave.notifications.stream.connections (gauge)
+///
+/// Updated By:   Capstone Team
+/// Update Notes: The resume replay runs two queries, each with its own limit:
+///               notifications newer than Last-Event-ID (replay-limit) and coalesced
+///               ones at or below it (fold-replay-limit). Before, one id-ordered query
+///               shared a single limit, so old folds could use it up and push missed
+///               notifications out. If either query hits its limit, the replay ends
+///               with a "resync" event, and the browser re-fetches /notifications/unread.
+/// ==========================================
+package com.loreweave.loreweave.service;
+
+import com.loreweave.loreweave.dto.ws.NotificationEvent;
+import com.loreweave.loreweave.dto.ws.NotificationView;
+import com.loreweave.loreweave.repository.NotificationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@Service
+public class NotificationStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationStreamService.class);
+
+    private final NotificationRepository notificationRepository;
+    private final long timeoutMillis;
+    private final int replayLimit;
+    private final int foldReplayLimit;
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final int maxPending;
+
+    public NotificationStreamService(NotificationRepository notificationRepository,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${loreweave.notification-stream.timeout:30m}") Duration timeout,
+                                     @Value("${loreweave.notification-stream.replay-limit:100}") int replayLimit,
+                                     @Value("${loreweave.notification-stream.fold-replay-limit:50}") int foldReplayLimit,
+                                     @Value("${loreweave.notification-stream.max-pending:256}") int maxPending) {
+        this.notificationRepository = notificationRepository;
+        this.timeoutMillis = timeout.toMillis();
+        this.replayLimit = replayLimit;
+        this.foldReplayLimit = foldReplayLimit;
+        this.maxPending = maxPending;
+        Gauge.builder("loreweave.notifications.stream.connections", connections, AtomicInteger::get)
+                .description("Open notification SSE streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream for a user.
+     * @param username    the logged-in user
+     * @param lastEventId id of the last notification the browser saw (Last-Event-ID), or null
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe(String username, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(username, emitter);
+
+        // Registered before the replay query so nothing published meanwhile is lost; the
+        // subscriber holds live events back until startLive()
+        subscribers.computeIfAbsent(username, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        connections.incrementAndGet();
+
+        Runnable remove = () -> remove(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(ex -> remove.run());
+
+        long replayedUpTo = lastEventId != null ? lastEventId : 0L;
+        try {
+            // Resume: replay only what was missed; a fresh stream starts from now
+            if (lastEventId != null) {
+                // One row over each limit tells whether the replay is complete
+                List<NotificationEvent> folds = notificationRepository.findUnreadFoldsUpTo(
+                        username, lastEventId, PageRequest.ofSize(foldReplayLimit + 1));
+                List<NotificationEvent> missed = notificationRepository.findUnreadEventsAfter(
+                        username, lastEventId, PageRequest.ofSize(replayLimit + 1));
+                for (NotificationEvent event : folds.subList(0, Math.min(folds.size(), foldReplayLimit)).reversed()) {
+                    emitter.send(toUpdateSse(event));
+                }
+                for (NotificationEvent event : missed.subList(0, Math.min(missed.size(), replayLimit))) {
+                    emitter.send(toSse(event));
+                    replayedUpTo = event.id();
+                }
+                if (folds.size() > foldReplayLimit || missed.size() > replayLimit) {
+                    emitter.send(toResyncSse());
+                }
+            } else {
+                emitter.send(SseEmitter.event().comment("connected"));
+            }
+        } catch (IOException | IllegalStateException ex) {
+            remove.run();
+            return emitter;
+        }
+        subscriber.startLive(replayedUpTo);
+        return emitter;
+    }
+
+    /**
+     * Send a new notification to every open stream of its recipient. Never blocks the caller.
+     */
+    public void publish(String username, NotificationEvent event) {
+        forEachSubscriber(username, subscriber -> subscriber.enqueue(event.id(), toSse(event)));
+    }
+
+    /**
+     * Send a changed notification (same id, new message/count) as a "notification-updated" event.
+     */
+    public void publishUpdate(String username, NotificationEvent event) {
+        forEachSubscriber(username, subscriber -> subscriber.enqueue(null, toUpdateSse(event)));
+    }
+
+    /**
+     * Send a new direct message as a "message" event (drives the messages badge).
+     */
+    public void publishMessage(String username, NotificationView message) {
+        forEachSubscriber(username, subscriber -> subscriber.enqueue(null, SseEmitter.event()
+                .name("message")
+                .data(message, MediaType.APPLICATION_JSON)));
+    }
+
+    // Comment line on every stream: keeps proxies from timing out and finds dead connections
+    @Scheduled(fixedRateString = "${loreweave.notification-stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.values().forEach(open -> open.forEach(subscriber ->
+                subscriber.enqueue(null, SseEmitter.event().comment("ping"))));
+    }
+
+    public int connectionCount() {
+        return connections.get();
+    }
+
+    // A builder can be sent only once, so callers build one per subscriber
+    private void forEachSubscriber(String username, Consumer<Subscriber> action) {
+        Set<Subscriber> open = subscribers.get(username);
+        if (open != null) {
+            open.forEach(action);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.username, (name, open) -> {
+            if (open.remove(subscriber)) {
+                connections.decrementAndGet();
+            }
+            return open.isEmpty() ? null : open;
+        });
+    }
+
+    // An event waiting to be sent; notificationId is set for new notifications only
+    private record Outgoing(Long notificationId, SseEmitter.SseEventBuilder event) {}
+
+    // One open stream and its send queue; at most one drain runs at a time
+    private final class Subscriber {
+
+        private final String username;
+        private final SseEmitter emitter;
+        private final Queue<Outgoing> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+
+        // Starts "draining" so nothing is sent before the replay; startLive() releases it
+        private final AtomicBoolean draining = new AtomicBoolean(true);
+        private volatile long replayedUpTo;
+        private volatile boolean closed;
+
+        Subscriber(String username, SseEmitter emitter) {
+            this.username = username;
+            this.emitter = emitter;
+        }
+
+        void enqueue(Long notificationId, SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > maxPending) {
+                log.debug("Notification stream for {} is {} events behind; closing it", username, maxPending);
+                close(null);
+                return;
+            }
+            pending.add(new Outgoing(notificationId, event));
+            scheduleDrain();
+        }
+
+        void startLive(long replayedUpTo) {
+            this.replayedUpTo = replayedUpTo;
+            draining.set(false);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!pending.isEmpty() && draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException ex) {
+                    draining.set(false);         // shutting down
+                }
+            }
+        }
+
+        private void drain() {
+            Outgoing next;
+            while (!closed && (next = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                // Already sent by the Last-Event-ID replay
+                if (next.notificationId() != null && next.notificationId() <= replayedUpTo) {
+                    continue;
+                }
+                try {
+                    emitter.send(next.event());
+                } catch (IOException | IllegalStateException ex) {
+                    // Client went away; the container will also call onError/onCompletion
+                    log.debug("Dropping notification stream for {}", username);
+                    close(ex);
+                    return;
+                }
+            }
+            draining.set(false);
+            scheduleDrain();                     // picks up anything queued after the loop ended
+        }
+
+        private void close(Exception cause) {
+            closed = true;
+            pending.clear();
+            remove(this);
+            if (cause != null) {
+                emitter.completeWithError(cause);
+            } else {
+                emitter.complete();
+            }
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder toSse(NotificationEvent event) {
+        return SseEmitter.event()
+                .id(String.valueOf(event.id()))
+                .name("notification")
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+
+    // No id: an update must not move the browser's Last-Event-ID
+    private static SseEmitter.SseEventBuilder toUpdateSse(NotificationEvent event) {
+        return SseEmitter.event()
+                .name("notification-updated")
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+
+    // The replay was cut short: the browser re-fetches its unread list and badge
+    // (an event with no data is never dispatched, hence the placeholder)
+    private static SseEmitter.SseEventBuilder toResyncSse() {
+        return SseEmitter.event()
+                .name("resync")
+                .data("unread");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(open -> open.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdown();
+    }
+}
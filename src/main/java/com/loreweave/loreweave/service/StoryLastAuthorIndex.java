@@ -0,0 +1,211 @@
+/// ==========================================
+/// File Name:    StoryLastAuthorIndex.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      In-memory story id -> (last author id, last partOrder) index
+///               used for the "not your turn" rule. Stored in primitive
+///               open-addressing arrays (no boxing, ~20 bytes per story),
+///               warmed lazily from the database and updated after each
+///               StoryPart commit, so the turn check is an O(1) lookup.
+///               Reads are lock-free (optimistic StampedLock reads).
+/// ==========================================
+package com.loreweave.loreweave.service;
+
+import com.loreweave.loreweave.dto.story.LastPartAuthorView;
+import com.loreweave.loreweave.event.StoryPartAddedEvent;
+import com.loreweave.loreweave.repository.StoryPartRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+@Component
+public class StoryLastAuthorIndex {
+
+    // Story has no parts yet, or its last part has no recorded author
+    public static final long NO_AUTHOR = 0L;
+
+    // Entry missing, or older than the partOrder the caller asked about
+    public static final long UNKNOWN = -1L;
+
+    // Story ids start at 1, so 0 marks a free slot
+    private static final long EMPTY_KEY = 0L;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // partOrder of an invalidated entry; below any real order, so lookups treat it as missing
+    private static final int STALE_ORDER = -1;
+
+    private final StoryPartRepository storyPartRepository;
+    private final StampedLock lock = new StampedLock();
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+    private int size;   // guarded by the write lock
+
+    public StoryLastAuthorIndex(StoryPartRepository storyPartRepository) {
+        this.storyPartRepository = storyPartRepository;
+    }
+
+    /**
+     * Author of the latest part of a story, loading it from the database on first use.
+     * @param storyId the story ID
+     * @return the author's user ID, or NO_AUTHOR if there is no restriction
+     */
+    public long lastAuthorId(long storyId) {
+        Entry e = read(storyId);
+        if (e != null) {
+            return e.authorId();
+        }
+        Long warmed = warm(storyId).authorId();
+        return warmed != null ? warmed : NO_AUTHOR;
+    }
+
+    /**
+     * Author of part number partOrder, but only if the index is exactly at that part.
+     * Used inside the append transaction, where partOrder is the story's current part count.
+     * @return the author's user ID, NO_AUTHOR, or UNKNOWN when the entry is missing or stale
+     */
+    public long lastAuthorIdAt(long storyId, int partOrder) {
+        Entry e = read(storyId);
+        if (e == null || e.partOrder() != partOrder) {
+            return UNKNOWN;
+        }
+        return e.authorId();
+    }
+
+    /**
+     * Read the latest part from the database and store it.
+     * @return the latest part order and author (order 0 / NO_AUTHOR for an empty story)
+     */
+    public LastPartAuthorView warm(long storyId) {
+        List<LastPartAuthorView> rows = storyPartRepository.findLastPartAuthor(storyId, PageRequest.ofSize(1));
+        LastPartAuthorView last = rows.isEmpty() ? new LastPartAuthorView(0, null) : rows.get(0);
+        record(storyId, last.authorId() != null ? last.authorId() : NO_AUTHOR, last.partOrder());
+        return last;
+    }
+
+    // Keep the index current once a new part has committed
+    @TransactionalEventListener
+    public void onStoryPartAdded(StoryPartAddedEvent event) {
+        record(event.storyId(), event.authorId() != null ? event.authorId() : NO_AUTHOR, event.partOrder());
+    }
+
+    /**
+     * Store the author of a story's latest part. Ignored if the index already
+     * knows about a later part, so late or duplicate updates never move it back.
+     */
+    public void record(long storyId, long authorId, int partOrder) {
+        long stamp = lock.writeLock();
+        try {
+            Table t = table;
+            int slot = probe(t, storyId);
+            if (t.keys[slot] == storyId) {
+                if (partOrder >= t.orders[slot]) {
+                    t.authors[slot] = authorId;
+                    t.orders[slot] = partOrder;
+                }
+                return;
+            }
+            t.keys[slot] = storyId;
+            t.authors[slot] = authorId;
+            t.orders[slot] = partOrder;
+            if (++size * 2 > t.keys.length) {
+                table = t.resize();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Forget what is known about a story, so the next turn check reads the database.
+     * The slot keeps its key (probing is unaffected) and is marked stale; the next
+     * record() for the story overwrites it.
+     */
+    public void invalidate(long storyId) {
+        long stamp = lock.writeLock();
+        try {
+            Table t = table;
+            int slot = probe(t, storyId);
+            if (t.keys[slot] == storyId) {
+                t.orders[slot] = STALE_ORDER;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Optimistic read first; fall back to a read lock if a writer got in between
+    private Entry read(long storyId) {
+        long stamp = lock.tryOptimisticRead();
+        Entry e = lookup(table, storyId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                e = lookup(table, storyId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return e;
+    }
+
+    private static Entry lookup(Table t, long storyId) {
+        int slot = probe(t, storyId);
+        if (t.keys[slot] != storyId || t.orders[slot] == STALE_ORDER) {
+            return null;
+        }
+        return new Entry(t.authors[slot], t.orders[slot]);
+    }
+
+    // Linear probing; the table is kept at most half full so a free slot always exists
+    private static int probe(Table t, long key) {
+        int mask = t.keys.length - 1;
+        int slot = mix(key) & mask;
+        while (t.keys[slot] != EMPTY_KEY && t.keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private record Entry(long authorId, int partOrder) {}
+
+    private static final class Table {
+        final long[] keys;
+        final long[] authors;
+        final int[] orders;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            authors = new long[capacity];
+            orders = new int[capacity];
+        }
+
+        Table resize() {
+            Table bigger = new Table(keys.length * 2);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY_KEY) {
+                    int slot = probe(bigger, keys[i]);
+                    bigger.keys[slot] = keys[i];
+                    bigger.authors[slot] = authors[i];
+                    bigger.orders[slot] = orders[i];
+                }
+            }
+            return bigger;
+        }
+    }
+}
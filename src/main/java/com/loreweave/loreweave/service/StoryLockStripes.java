@@ -0,0 +1,54 @@
+/// ==========================================
+/// File Name:    StoryLockStripes.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Fixed pool of fair locks used to serialise work on a single
+///               story (e.g. appending parts) without one lock object per
+///               story. Different stories usually map to different stripes,
+///               so unrelated stories still proceed in parallel.
+/// ==========================================
+package com.loreweave.loreweave.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Component
+public class StoryLockStripes {
+
+    private final ReentrantLock[] stripes;
+
+    public StoryLockStripes(@Value("${loreweave.story-locks.stripes:64}") int stripeCount) {
+        // Round up to a power of two so the stripe index is a cheap mask
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+    }
+
+    /**
+     * Run an action while holding the stripe lock for a story.
+     * @param storyId the story being modified
+     * @param action the work to run under the lock
+     * @return the action's result
+     */
+    public <T> T withLock(Long storyId, Supplier<T> action) {
+        ReentrantLock lock = stripeFor(storyId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(Long storyId) {
+        // Spread the id bits before masking so sequential ids do not cluster
+        int h = Long.hashCode(storyId);
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+}
@@ -25,118 +25,219 @@ package com.loreweave.loreweave.service;
 /// 
 /// Updated By:   Wyatt Bechtle
 /// Update Notes: Refactored notification creation logic to ensure notifications include a link to the story
+///
+/// Updated By:   Capstone Team
+/// Update Notes: addStoryPart now bumps Story.partCount/lastPartAt in the same transaction
+///               via StoryRepository.recordNewPart, so listings can read the count directly.
+///               Added getPartWindow for partOrder-windowed reads of long stories.
+///               Publishes StoryPartAddedEvent after saving so after-commit listeners
+///               (e.g. StoryViewCache) can update in-memory state.
+///               Appends are serialised per story with StoryLockStripes held across the
+///               transaction; partOrder is assigned inside it and a unique (story_id, part_order)
+///               constraint plus bounded retry guards against other app instances.
+///               The turn rule now reads the last author from StoryLastAuthorIndex, trusting
+///               it only when its partOrder matches the story's part_count (otherwise one
+///               projection query re-warms it). Added isLastAuthor for the new-part form.
+///               The creator notification is queued in the notification outbox inside the
+///               append transaction instead of being inserted and pushed synchronously.
+///
+/// Updated By:   Capstone Team
+/// Update Notes: The append reads the story with StoryRepository.findByIdForUpdate (row lock,
+///               second-level cache bypassed) so part_count is never a cached value from before
+///               another instance's append. A partOrder collision evicts the story's cache entry
+///               and its StoryLastAuthorIndex entry before the retry.
+///               part_count/last_part_at are set on that locked Story entity instead of by the
+///               recordNewPart bulk UPDATE, which cleared the whole "story" cache region per append.
 /// ==========================================
 
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import com.loreweave.loreweave.dto.story.LastPartAuthorView;
+import com.loreweave.loreweave.dto.story.StoryPartSummaryView;
+import com.loreweave.loreweave.dto.story.StoryPartWindow;
+import com.loreweave.loreweave.event.StoryPartAddedEvent;
+import com.loreweave.loreweave.model.Story;
 import com.loreweave.loreweave.model.StoryPart;
 import com.loreweave.loreweave.model.Character;
 import com.loreweave.loreweave.model.User;
 import com.loreweave.loreweave.repository.StoryRepository;
 import com.loreweave.loreweave.repository.StoryPartRepository;
-import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
-import com.loreweave.loreweave.model.Notification;
 import com.loreweave.loreweave.service.NotificationService;
-import com.loreweave.loreweave.dto.ws.NotificationView;
 
 @Service
 public class StoryPartService {
 
+    private static final Logger log = LoggerFactory.getLogger(StoryPartService.class);
+
+    // Upper bound on the number of parts returned in one window
+    public static final int MAX_WINDOW_SIZE = 200;
+
+    // Attempts before giving up on repeated (story_id, part_order) collisions
+    static final int MAX_APPEND_ATTEMPTS = 5;
+
     private final StoryPartRepository storyPartRepository;
     private final StoryRepository storyRepository;
     private final NotificationService notificationService;
-    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StoryLockStripes storyLockStripes;
+    private final StoryLastAuthorIndex lastAuthorIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
 
     public StoryPartService(StoryPartRepository storyPartRepository,
                             StoryRepository storyRepository,
                             NotificationService notificationService,
-                            SimpMessagingTemplate simpMessagingTemplate) {
+                            ApplicationEventPublisher eventPublisher,
+                            StoryLockStripes storyLockStripes,
+                            StoryLastAuthorIndex lastAuthorIndex,
+                            PlatformTransactionManager transactionManager,
+                            EntityManagerFactory entityManagerFactory) {
         this.storyPartRepository = storyPartRepository;
         this.storyRepository = storyRepository;
         this.notificationService = notificationService;
-        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.eventPublisher = eventPublisher;
+        this.storyLockStripes = storyLockStripes;
+        this.lastAuthorIndex = lastAuthorIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
     }
 
-    @Transactional
+    /**
+     * Append a part to its story. The partOrder is always assigned here (any value
+     * on the incoming part is ignored) so every caller gets the same ordering rules.
+     *
+     * Appends to one story are serialised by a striped in-JVM lock held across the
+     * whole transaction, and the (story_id, part_order) unique constraint guards
+     * against other application instances: a duplicate order rolls back and is
+     * retried in a fresh transaction, which also re-checks the turn rule.
+     */
     public StoryPart addStoryPart(StoryPart storyPart, Character character) throws Exception {
 
         // Require an attached character up front
         if (character == null) {
             throw new IllegalStateException("You must create/select a character before contributing to a story.");
         }
+        if (storyPart.getStory() == null || storyPart.getStory().getId() == null) {
+            throw new IllegalArgumentException("A story part must reference an existing story.");
+        }
+
+        Long storyId = storyPart.getStory().getId();
+        return storyLockStripes.withLock(storyId, () -> appendWithRetry(storyId, storyPart, character));
+    }
+
+    // Retry only on a (story_id, part_order) collision; every attempt is its own transaction
+    private StoryPart appendWithRetry(Long storyId, StoryPart storyPart, Character character) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> appendInTransaction(storyId, storyPart, character));
+            } catch (DataIntegrityViolationException ex) {
+                if (attempt >= MAX_APPEND_ATTEMPTS) {
+                    throw new IllegalStateException("Could not add your story part, please try again.", ex);
+                }
+                log.debug("partOrder collision on story {} (attempt {}), retrying", storyId, attempt);
+                storyPart.setId(null);
+
+                // Another instance got there first: drop this JVM's view of the story
+                entityManagerFactory.getCache().evict(Story.class, storyId);
+                lastAuthorIndex.invalidate(storyId);
+            }
+        }
+    }
+
+    private StoryPart appendInTransaction(Long storyId, StoryPart storyPart, Character character) {
+
+        // Attach the managed story so the notification below can walk creator -> user.
+        // Locked and read past the second-level cache: part_count must be the committed value
+        var story = storyRepository.findByIdForUpdate(storyId).orElseThrow();
+        storyPart.setStory(story);
+
+        // The author is always the contributing character's user
+        if (storyPart.getAuthor() == null) {
+            storyPart.setAuthor(character.getUser());
+        }
 
         // ================================================
         // TURN ORDER RULE:
         // Prevent users from adding two consecutive parts.
         //
-        // Uses new repository method:
-        //   findTopByStoryIdOrderByPartOrderDesc(Long storyId)
+        // The last author comes from StoryLastAuthorIndex. The index entry is only
+        // trusted when it is at the story's current part_count (read above, under the
+        // story lock); otherwise the latest part is re-read with one projection query.
         //
         // We compare the last contributor's userId with the current user's userId.
         // ================================================
-        storyPartRepository.findTopByStoryIdOrderByPartOrderDesc(
-                storyPart.getStory().getId())
-                .ifPresent(lastPart -> {
-            if (lastPart.getAuthor() != null &&
-                    lastPart.getAuthor().getId().equals(character.getUser().getId())) {
-                throw new RuntimeException(
-                        "You cannot add another story part until another user contributes."
-                );
-            }
-        });
+        int lastOrder = story.getPartCount();
+        long lastAuthorId = lastAuthorIndex.lastAuthorIdAt(storyId, lastOrder);
+        if (lastAuthorId == StoryLastAuthorIndex.UNKNOWN) {
+            LastPartAuthorView last = lastAuthorIndex.warm(storyId);
+            lastOrder = last.partOrder();
+            lastAuthorId = last.authorId() != null ? last.authorId() : StoryLastAuthorIndex.NO_AUTHOR;
+        }
+        if (character.getUser() != null && character.getUser().getId() != null
+                && lastAuthorId == character.getUser().getId()) {
+            throw new RuntimeException(
+                    "You cannot add another story part until another user contributes."
+            );
+        }
+
+        // Next order follows the last part read above; the unique constraint catches any race
+        storyPart.setPartOrder(lastOrder + 1);
 
-        // Set the contributor and save
+        // Set the contributor and save (flush now so a duplicate order surfaces here)
         storyPart.setContributor(character);
-        StoryPart saved = storyPartRepository.save(storyPart);
-
-        // Create and persist notification to story creator
-        try {
-            if (saved.getStory() != null && saved.getStory().getCreator() != null) {
-
-                User creatorUser = saved.getStory().getCreator().getUser();
-
-                if (creatorUser != null) {
-
-                    String storyTitle = saved.getStory().getTitle() != null ? saved.getStory().getTitle() : "a story";
-                    String fromUsername = character.getUser() != null ? character.getUser().getUsername() : "unknown";
-                    String message = String.format("New contribution to %s from %s", storyTitle, fromUsername);
-
-                    // Create and save the notification with a link to the story so the creator can navigate to it
-                    String storyLink = "/story/" + saved.getStory().getId();
-                    Notification notif = new Notification(creatorUser, character.getUser(), message, storyLink);
-
-                    // Persist the notification to the db
-                    Notification savedNotif = notificationService.createNotification(notif);
-
-                    try {
-                        simpMessagingTemplate.convertAndSendToUser(
-                                creatorUser.getUsername(),
-                                "/queue/notifications",
-                                new NotificationView(
-                                        savedNotif.getMessage(),
-                                        savedNotif.getSender().getUsername(),
-                                        savedNotif.getCreatedAt().toString()
-                                )
-                        );
-                    } catch (Exception e) {
-                        // ignore websocket errors
-                    }
-                }
+        StoryPart saved = storyPartRepository.saveAndFlush(storyPart);
+
+        // Keep the story's persisted part counter in step with the new row. Written through
+        // the locked entity, so only this story's second-level cache entry changes
+        LocalDateTime partCreatedAt = saved.getCreatedAt() != null ? saved.getCreatedAt() : LocalDateTime.now();
+        story.setPartCount(story.getPartCount() + 1);
+        story.setLastPartAt(partCreatedAt);
+        story.setLastUpdatedAt(partCreatedAt);
+
+        // Listeners run after commit (see StoryViewCache)
+        User authorUser = saved.getAuthor() != null ? saved.getAuthor() : character.getUser();
+        eventPublisher.publishEvent(new StoryPartAddedEvent(
+                storyId,
+                saved.getId(),
+                saved.getPartOrder(),
+                authorUser != null ? authorUser.getId() : null,
+                character.getUser() != null ? character.getUser().getUsername() : null,
+                partCreatedAt));
+
+        // Queue a notification to the story creator; it is written to the outbox in this
+        // transaction and delivered by NotificationDispatcher once the part has committed
+        if (saved.getStory().getCreator() != null && character.getUser() != null) {
+
+            User creatorUser = saved.getStory().getCreator().getUser();
+
+            if (creatorUser != null) {
+
+                String storyTitle = saved.getStory().getTitle() != null ? saved.getStory().getTitle() : "a story";
+                String message = String.format("New contribution to %s from %s", storyTitle, character.getUser().getUsername());
+
+                // Link to the story so the creator can navigate to it
+                String storyLink = "/story/" + saved.getStory().getId();
+                notificationService.queueNotification(creatorUser, character.getUser(), message, storyLink);
             }
-        } catch (Exception e) {
-            // keep story part creation even if notifications fail
         }
 
         return saved;
     }
 
     // Create a new story part for a given story
-    @Transactional
     public void createPartForStory(Long storyId, String content, User user) throws Exception {
 
         // Fetch the story
@@ -148,20 +249,47 @@ public class StoryPartService {
             throw new IllegalStateException("You must create/select a character before contributing to a story.");
         }
 
-        // Determine next partOrder
-        int nextOrder = storyPartRepository.findMaxPartOrderForStory(storyId) + 1;
-
-        /* Create and save the new story part */
-        StoryPart sp = new StoryPart(story, character, content, nextOrder);
+        /* Create the new story part; partOrder is assigned by addStoryPart under the story lock */
+        StoryPart sp = new StoryPart(story, character, content, 0);
         sp.setAuthor(user);
 
-        // Uses updated addStoryPart() which now enforces turn limits
+        // Uses updated addStoryPart() which now enforces turn limits and ordering
         addStoryPart(sp, character);
     }
 
+    /**
+     * Whether the given user wrote the latest part of a story (i.e. it is not their turn).
+     * Served from StoryLastAuthorIndex; only the first check for a story hits the database.
+     */
+    public boolean isLastAuthor(Long storyId, Long userId) {
+        return userId != null && lastAuthorIndex.lastAuthorId(storyId) == userId;
+    }
+
     public Optional<StoryPart> getStoryPartByIdWithContributorAndUser(Long id) {
         return storyPartRepository.findByIdWithContributorUserAndStory(id);
     }
 
+    /**
+     * Load one window of a story's parts with partOrder greater than afterOrder.
+     *
+     * @param storyId    the story to read
+     * @param afterOrder last partOrder the caller already has (0 for the start of the story)
+     * @param size       window size (clamped to 1..MAX_WINDOW_SIZE)
+     * @return the parts in order and the afterOrder for the next window (null at the end)
+     */
+    public StoryPartWindow getPartWindow(Long storyId, int afterOrder, int size) {
+        int windowSize = Math.max(1, Math.min(size, MAX_WINDOW_SIZE));
+
+        // One extra row tells us whether another window follows
+        List<StoryPartSummaryView> rows = storyPartRepository.fetchWindowByStoryId(
+                storyId, Math.max(afterOrder, 0), PageRequest.ofSize(windowSize + 1));
+
+        if (rows.size() <= windowSize) {
+            return new StoryPartWindow(rows, null);
+        }
+        List<StoryPartSummaryView> window = List.copyOf(rows.subList(0, windowSize));
+        return new StoryPartWindow(window, window.get(windowSize - 1).partOrder());
+    }
+
 
 }
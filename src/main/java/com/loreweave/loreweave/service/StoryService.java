@@ -10,17 +10,30 @@
 ///               by its ID or throw an exception if not found. This
 ///               is used by StoryPartController when displaying the
 ///               "not your turn" error page.
+///
+/// Updated By:   Capstone Team
+/// Update Notes: Added listStories for keyset (cursor) pagination of the
+///               stories listing, shared by /stories and /api/stories.
 /// ==========================================
 
 package com.loreweave.loreweave.service;
 
+import com.loreweave.loreweave.dto.story.StoryCursor;
+import com.loreweave.loreweave.dto.story.StoryPage;
+import com.loreweave.loreweave.dto.story.StorySummaryView;
 import com.loreweave.loreweave.model.Story;
 import com.loreweave.loreweave.repository.StoryRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class StoryService {
 
+    // Upper bound on page size so a client cannot request an unbounded listing
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final StoryRepository storyRepository;
 
     public StoryService(StoryRepository storyRepository) {
@@ -42,4 +55,32 @@ public class StoryService {
         return storyRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Story not found with id " + id));
     }
+
+    /**
+     * Fetch one keyset page of story summaries, newest first.
+     *
+     * @param cursor token from a previous page's nextCursor, or null/blank for the first page
+     * @param size   requested page size (clamped to 1..MAX_PAGE_SIZE)
+     * @return the page and the cursor for the following page (null when exhausted)
+     * @throws IllegalArgumentException if the cursor token is malformed
+     */
+    public StoryPage listStories(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        // Ask for one extra row to learn whether another page exists without a count query
+        PageRequest probe = PageRequest.ofSize(pageSize + 1);
+        List<StorySummaryView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = storyRepository.findSummariesFirstPage(probe);
+        } else {
+            StoryCursor after = StoryCursor.decode(cursor);
+            rows = storyRepository.findSummariesAfter(after.lastUpdatedAt(), after.id(), probe);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new StoryPage(rows, null);
+        }
+        List<StorySummaryView> page = List.copyOf(rows.subList(0, pageSize));
+        return new StoryPage(page, StoryCursor.after(page.get(pageSize - 1)).encode());
+    }
 }
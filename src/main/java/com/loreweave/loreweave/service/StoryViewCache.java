@@ -0,0 +1,163 @@
+/// ==========================================
+/// File Name:    StoryViewCache.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Bounded in-process cache of assembled StoryView objects for
+///               /story/{id}. Stories are append-only, so instead of expiring
+///               on every write the cached view is extended in place when a new
+///               part commits (StoryPartAddedEvent) and dropped only if the
+///               cached part orders no longer line up with the database.
+///               Hit/miss/eviction counts are published to Micrometer as the
+///               "storyView" cache.
+///
+/// Updated By:   Capstone Team
+/// Update Notes: Append events only reach the instance that made the append, and
+///               expire-after-access never drops a hot story. So every cached view is
+///               now checked against the story's part_count, with one primary-key read
+///               that skips the second-level cache. On a mismatch (an append through
+///               another instance) the view is reloaded. The reload takes its part count
+///               and last-updated time from the part rows, or from that same read for
+///               header-only views, never from this instance's cached Story.
+/// ==========================================
+package com.loreweave.loreweave.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.loreweave.loreweave.dto.story.StoryPartSummaryView;
+import com.loreweave.loreweave.dto.story.StoryPartWindow;
+import com.loreweave.loreweave.dto.story.StoryView;
+import com.loreweave.loreweave.event.StoryPartAddedEvent;
+import com.loreweave.loreweave.model.Story;
+import com.loreweave.loreweave.repository.StoryPartRepository;
+import com.loreweave.loreweave.repository.StoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class StoryViewCache {
+
+    private final StoryRepository storyRepository;
+    private final StoryPartRepository storyPartRepository;
+    private final StoryPartService storyPartService;
+    private final int maxCachedParts;
+    private final Cache<Long, StoryView> cache;
+
+    public StoryViewCache(StoryRepository storyRepository,
+                          StoryPartRepository storyPartRepository,
+                          StoryPartService storyPartService,
+                          MeterRegistry meterRegistry,
+                          @Value("${loreweave.story-cache.max-weight:200000}") long maxWeight,
+                          @Value("${loreweave.story-cache.max-cached-parts:2000}") int maxCachedParts,
+                          @Value("${loreweave.story-cache.expire-after-access:30m}") Duration expireAfterAccess) {
+        this.storyRepository = storyRepository;
+        this.storyPartRepository = storyPartRepository;
+        this.storyPartService = storyPartService;
+        this.maxCachedParts = maxCachedParts;
+
+        // Weight = 1 per story + 1 per cached part summary, so long stories count for more
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long id, StoryView view) -> view.weight())
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "storyView");
+    }
+
+    /**
+     * Get the assembled view of a story, loading it from the database on a miss.
+     * @param storyId the story ID
+     * @return the view, or empty if the story does not exist
+     */
+    public Optional<StoryView> getStory(Long storyId) {
+        StoryView cached = cache.policy().getIfPresentQuietly(storyId);
+        if (cached != null) {
+            Integer partCount = storyRepository.findPartCountById(storyId).orElse(null);
+            if (partCount == null) {
+                cache.invalidate(storyId);
+                return Optional.empty();
+            }
+            if (partCount != cached.partCount()) {
+                cache.asMap().remove(storyId, cached);         // appended through another instance
+            }
+        }
+        // Atomic per key: an append event for this story waits for the load and then extends it
+        return Optional.ofNullable(cache.get(storyId, this::load));
+    }
+
+    /**
+     * Window of parts for a story view: served from memory when the parts are
+     * cached, otherwise read from the database one window at a time.
+     */
+    public StoryPartWindow getPartWindow(StoryView view, int afterOrder, int size) {
+        int windowSize = Math.max(1, Math.min(size, StoryPartService.MAX_WINDOW_SIZE));
+        if (view.hasCachedParts()) {
+            return view.window(Math.max(afterOrder, 0), windowSize);
+        }
+        return storyPartService.getPartWindow(view.id(), afterOrder, windowSize);
+    }
+
+    // Extend the cached view once the new part is committed; drop it if the orders have drifted
+    @TransactionalEventListener
+    public void onStoryPartAdded(StoryPartAddedEvent event) {
+        StoryPartSummaryView part = new StoryPartSummaryView(
+                event.partId(), event.partOrder(), event.contributorUsername(), event.createdAt());
+
+        cache.asMap().computeIfPresent(event.storyId(), (id, view) -> {
+            if (!view.hasCachedParts()) {
+                return null;                                   // header-only views reload in one query
+            }
+            if (event.partOrder() <= view.lastPartOrder()) {
+                return view;                                   // load already saw this part
+            }
+            if (event.partOrder() == view.lastPartOrder() + 1) {
+                return view.withAppendedPart(part, maxCachedParts);
+            }
+            return null;                                       // missed an append; reload on next read
+        });
+    }
+
+    // Returns null for a missing story (Caffeine does not cache nulls). The Story itself may
+    // come from this instance's second-level or query cache, so its part_count and
+    // last_updated_at are not trusted: both are taken from the parts or a direct read
+    private StoryView load(Long storyId) {
+        Story story = storyRepository.findByIdWithCreatorAndUser(storyId).orElse(null);
+        if (story == null) {
+            return null;
+        }
+        int partCount = storyRepository.findPartCountById(storyId).orElse(story.getPartCount());
+
+        // Huge stories keep only the header; their windows are read from the database
+        List<StoryPartSummaryView> parts = null;
+        LocalDateTime lastUpdatedAt = story.getLastUpdatedAt();
+        if (partCount <= maxCachedParts) {
+            parts = storyPartRepository.fetchWindowByStoryId(storyId, 0, PageRequest.ofSize(maxCachedParts));
+            partCount = parts.size();
+            if (!parts.isEmpty()) {
+                lastUpdatedAt = parts.get(parts.size() - 1).createdAt();
+            }
+        }
+
+        String creatorUsername = story.getCreator() != null && story.getCreator().getUser() != null
+                ? story.getCreator().getUser().getUsername()
+                : null;
+
+        return new StoryView(
+                story.getId(),
+                story.getTitle(),
+                creatorUsername,
+                story.getCreatedAt(),
+                lastUpdatedAt,
+                partCount,
+                parts);
+    }
+}
@@ -0,0 +1,149 @@
+/// ==========================================
+/// File Name:    UnreadMessageCountCache.java
+/// Created By:   Capstone Team
+/// Created On:   2026-10-18
+/// Purpose:      Per-user unread direct message counter for the navbar messages
+///               badge, kept next to UnreadCountCache. Loaded once with the two
+///               per-side sums over the user's conversation rows, then adjusted
+///               in memory when a message is sent or a conversation is marked
+///               read. Adjustments are applied after the surrounding transaction
+///               commits. Entries expire after a short write TTL so any drift
+///               (e.g. messages sent through another instance) heals on its own.
+///               Published to Micrometer as "unreadMessageCount".
+///
+/// Updated By:   Capstone Team
+/// Update Notes: Same fixes as UnreadCountCache. The TTL runs from the load, and
+///               adjustments no longer restart it. A sum loaded while one of the
+///               user's sends or mark-reads is still committing is returned but not cached.
+/// ==========================================
+package com.loreweave.loreweave.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.loreweave.loreweave.repository.ConversationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Service
+public class UnreadMessageCountCache {
+
+    // Changes between their call (inside the writing transaction) and its completion,
+    // striped by username; a collision only means a load is not cached
+    private static final int STRIPES = 256;
+
+    private final ConversationRepository conversationRepository;
+    private final Cache<String, Long> counts;
+    private final AtomicIntegerArray openChanges = new AtomicIntegerArray(STRIPES);
+    private final AtomicLongArray startedChanges = new AtomicLongArray(STRIPES);
+
+    public UnreadMessageCountCache(ConversationRepository conversationRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${loreweave.unread-message-cache.max-size:50000}") long maxSize,
+                                   @Value("${loreweave.unread-message-cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.conversationRepository = conversationRepository;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(expireAfterLoad(expireAfterWrite))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "unreadMessageCount");
+    }
+
+    /**
+     * Unread direct messages across all of a user's conversations, summed in the database on a miss.
+     * @param username the logged-in user's username
+     * @return the number of unread messages
+     */
+    public long get(String username) {
+        Long cached = counts.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        int stripe = stripe(username);
+        long started = startedChanges.get(stripe);
+        boolean quiet = openChanges.get(stripe) == 0;
+        long count = conversationRepository.countUnreadAsLowSide(username)
+                + conversationRepository.countUnreadAsHighSide(username);
+        // Nothing committing for this user before or during the sums: they are exact
+        if (quiet && startedChanges.get(stripe) == started) {
+            counts.asMap().putIfAbsent(username, count);
+        }
+        return count;
+    }
+
+    /**
+     * Record new unread messages for a user (after commit, if in a transaction).
+     */
+    public void increment(String username, long by) {
+        change(username, by);
+    }
+
+    /**
+     * Record messages marked read for a user (after commit, if in a transaction).
+     */
+    public void decrement(String username, long by) {
+        change(username, -by);
+    }
+
+    // Only adjust cached entries; a missing entry is summed fresh on next read
+    private void change(String username, long delta) {
+        if (username == null || delta == 0) {
+            return;
+        }
+        int stripe = stripe(username);
+        openChanges.incrementAndGet(stripe);
+        startedChanges.incrementAndGet(stripe);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            adjust(username, delta);
+            openChanges.decrementAndGet(stripe);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    adjust(username, delta);
+                }
+                openChanges.decrementAndGet(stripe);
+            }
+        });
+    }
+
+    private void adjust(String username, long delta) {
+        counts.asMap().computeIfPresent(username, (name, count) -> Math.max(0, count + delta));
+    }
+
+    private static int stripe(String username) {
+        return Math.floorMod(username.hashCode(), STRIPES);
+    }
+
+    // Expire a fixed time after the sum was loaded; adjusting it does not extend that
+    private static Expiry<String, Long> expireAfterLoad(Duration ttl) {
+        long ttlNanos = ttl.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String username, Long count, long currentTime) {
+                return ttlNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(String username, Long count, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+
+            @Override
+            public long expireAfterRead(String username, Long count, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+}
@@ -0,0 +1,200 @@
+-- ==========================================
+-- File Name:    schema-updates.sql
+-- Created By:   Capstone Team
+-- Created On:   2026-10-18
+-- Purpose:      Manual MariaDB schema changes required by the entity mappings.
+--               spring.jpa.hibernate.ddl-auto=validate and spring.sql.init.mode=never,
+--               so these statements must be applied by hand (in order) before deploying.
+-- ==========================================
+
+-- Persisted part counter + last part timestamp on story (replaces per-story counting on /stories)
+ALTER TABLE story
+    ADD COLUMN part_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN last_part_at DATETIME(6) NULL;
+
+UPDATE story s
+SET s.part_count   = (SELECT COUNT(*) FROM story_part sp WHERE sp.story_id = s.id),
+    s.last_part_at = (SELECT MAX(sp.created_at) FROM story_part sp WHERE sp.story_id = s.id);
+
+-- Keyset pagination of the stories listing on (last_updated_at, id)
+UPDATE story SET last_updated_at = created_at WHERE last_updated_at IS NULL;
+CREATE INDEX idx_story_last_updated_id ON story (last_updated_at, id);
+
+-- Windowed part reads on (story_id, part_order)
+CREATE INDEX idx_story_part_story_order ON story_part (story_id, part_order);
+
+-- Gap-free, race-free part ordering: one part per (story_id, part_order).
+-- Renumber any existing duplicates first (e.g. by created_at, id) before adding the constraint.
+ALTER TABLE story_part
+    DROP INDEX idx_story_part_story_order,
+    ADD CONSTRAINT uk_story_part_story_order UNIQUE (story_id, part_order);
+
+-- Notification outbox: written in the same transaction as the triggering action,
+-- drained into notification rows + WebSocket pushes by NotificationDispatcher
+CREATE TABLE notification_outbox (
+    id                 BIGINT       NOT NULL AUTO_INCREMENT,
+    recipient_id       BIGINT       NOT NULL,
+    recipient_username VARCHAR(255) NOT NULL,
+    sender_id          BIGINT       NOT NULL,
+    sender_username    VARCHAR(255) NOT NULL,
+    message            VARCHAR(255) NOT NULL,
+    link               VARCHAR(255) NULL,
+    created_at         DATETIME(6)  NOT NULL,
+    attempts           INT          NOT NULL DEFAULT 0,
+    next_attempt_at    DATETIME(6)  NOT NULL,
+    last_error         VARCHAR(500) NULL,
+    PRIMARY KEY (id),
+    INDEX idx_notification_outbox_due (next_attempt_at, id)
+);
+
+-- Materialised vote tallies per story part, maintained with every lore_vote insert
+CREATE TABLE story_part_tally (
+    story_part_id BIGINT NOT NULL,
+    positive      INT    NOT NULL DEFAULT 0,
+    negative      INT    NOT NULL DEFAULT 0,
+    score         INT    NOT NULL DEFAULT 0,
+    PRIMARY KEY (story_part_id),
+    CONSTRAINT fk_story_part_tally_part FOREIGN KEY (story_part_id) REFERENCES story_part (id)
+);
+
+INSERT INTO story_part_tally (story_part_id, positive, negative, score)
+SELECT story_part_id,
+       SUM(vote_type = 'POSITIVE'),
+       SUM(vote_type = 'NEGATIVE'),
+       SUM(vote_type = 'POSITIVE') - SUM(vote_type = 'NEGATIVE')
+FROM lore_vote
+GROUP BY story_part_id;
+
+-- /messages conversation queries: grouped per partner in each direction, then threads
+CREATE INDEX idx_notification_user_sender ON notification (user_id, sender_id, created_at, is_read);
+CREATE INDEX idx_notification_sender_user ON notification (sender_id, user_id, created_at);
+
+-- Notification coalescing: bursts of one group (e.g. votes on a story part) fold into one row
+ALTER TABLE notification
+    ADD COLUMN group_key   VARCHAR(100) NULL,
+    ADD COLUMN group_count INT          NOT NULL DEFAULT 1;
+CREATE INDEX idx_notification_group ON notification (user_id, group_key, is_read);
+
+-- Time of the latest event folded into a notification; created_at keeps the first one
+ALTER TABLE notification ADD COLUMN updated_at DATETIME(6) NULL;
+UPDATE notification SET updated_at = created_at;
+ALTER TABLE notification MODIFY updated_at DATETIME(6) NOT NULL;
+
+ALTER TABLE notification_outbox
+    ADD COLUMN group_key     VARCHAR(100) NULL,
+    ADD COLUMN group_message VARCHAR(255) NULL;
+
+-- Notification retention: read notifications past max-age are moved here by NotificationRetentionJob
+CREATE TABLE notification_archive (
+    id          BIGINT       NOT NULL,
+    user_id     BIGINT       NOT NULL,
+    sender_id   BIGINT       NOT NULL,
+    message     VARCHAR(255) NOT NULL,
+    link        VARCHAR(255) NULL,
+    created_at  DATETIME(6)  NOT NULL,
+    group_key   VARCHAR(100) NULL,
+    group_count INT          NOT NULL DEFAULT 1,
+    archived_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_notification_archive_user (user_id, created_at)
+);
+-- Retention reads max(id) of the rows created before its cutoff once per run
+CREATE INDEX idx_notification_created ON notification (created_at);
+
+-- Direct messages get their own store: one conversation row per ordered user pair
+-- (sequence counter + per-side read position) and messages keyed by (conversation, seq)
+CREATE TABLE conversation (
+    id              BIGINT      NOT NULL AUTO_INCREMENT,
+    user_low_id     BIGINT      NOT NULL,
+    user_high_id    BIGINT      NOT NULL,
+    last_seq        BIGINT      NOT NULL DEFAULT 0,
+    last_message_at DATETIME(6) NULL,
+    low_read_seq    BIGINT      NOT NULL DEFAULT 0,
+    high_read_seq   BIGINT      NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_conversation_pair UNIQUE (user_low_id, user_high_id),
+    INDEX idx_conversation_low (user_low_id, last_message_at),
+    INDEX idx_conversation_high (user_high_id, last_message_at)
+);
+
+CREATE TABLE private_message (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    conversation_id BIGINT       NOT NULL,
+    seq             BIGINT       NOT NULL,
+    sender_id       BIGINT       NOT NULL,
+    message         VARCHAR(255) NOT NULL,
+    created_at      DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_private_message_seq UNIQUE (conversation_id, seq)
+);
+
+-- Move existing DMs (notifications linking to /messages) into the new store
+INSERT INTO conversation (user_low_id, user_high_id, last_seq, last_message_at)
+SELECT LEAST(user_id, sender_id), GREATEST(user_id, sender_id), COUNT(*), MAX(created_at)
+FROM notification
+WHERE link = '/messages'
+GROUP BY LEAST(user_id, sender_id), GREATEST(user_id, sender_id);
+
+INSERT INTO private_message (conversation_id, seq, sender_id, message, created_at)
+SELECT c.id,
+       ROW_NUMBER() OVER (PARTITION BY c.id ORDER BY n.created_at, n.id),
+       n.sender_id, n.message, n.created_at
+FROM notification n
+JOIN conversation c ON c.user_low_id = LEAST(n.user_id, n.sender_id)
+                   AND c.user_high_id = GREATEST(n.user_id, n.sender_id)
+WHERE n.link = '/messages';
+
+-- Keep each side's unread count: read position = last_seq - unread messages received
+UPDATE conversation c
+SET low_read_seq  = c.last_seq - (SELECT COUNT(*) FROM notification n
+                                  WHERE n.link = '/messages' AND n.is_read = false
+                                    AND n.user_id = c.user_low_id AND n.sender_id = c.user_high_id),
+    high_read_seq = c.last_seq - (SELECT COUNT(*) FROM notification n
+                                  WHERE n.link = '/messages' AND n.is_read = false
+                                    AND n.user_id = c.user_high_id AND n.sender_id = c.user_low_id);
+
+DELETE FROM notification WHERE link = '/messages';
+
+-- The per-pair notification indexes only served DM queries; notifications need user + unread
+DROP INDEX idx_notification_user_sender ON notification;
+DROP INDEX idx_notification_sender_user ON notification;
+CREATE INDEX idx_notification_user_read ON notification (user_id, is_read);
+
+-- Pooled id sequences (allocationSize 50) so Hibernate can batch inserts. INCREMENT BY must
+-- match allocationSize. Hibernate's pooled optimizer hands out (value - 49 .. value), so each
+-- sequence starts 50 past the current max id. notification and conversation stay AUTO_INCREMENT.
+SET @start = (SELECT COALESCE(MAX(id), 0) + 50 FROM `user`);
+SET @sql = CONCAT('CREATE SEQUENCE user_seq START WITH ', @start, ' INCREMENT BY 50');
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SET @start = (SELECT COALESCE(MAX(id), 0) + 50 FROM `character`);
+SET @sql = CONCAT('CREATE SEQUENCE character_seq START WITH ', @start, ' INCREMENT BY 50');
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SET @start = (SELECT COALESCE(MAX(id), 0) + 50 FROM story);
+SET @sql = CONCAT('CREATE SEQUENCE story_seq START WITH ', @start, ' INCREMENT BY 50');
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SET @start = (SELECT COALESCE(MAX(id), 0) + 50 FROM story_part);
+SET @sql = CONCAT('CREATE SEQUENCE story_part_seq START WITH ', @start, ' INCREMENT BY 50');
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SET @start = (SELECT COALESCE(MAX(id), 0) + 50 FROM lore_vote);
+SET @sql = CONCAT('CREATE SEQUENCE lore_vote_seq START WITH ', @start, ' INCREMENT BY 50');
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SET @start = (SELECT COALESCE(MAX(id), 0) + 50 FROM notification_outbox);
+SET @sql = CONCAT('CREATE SEQUENCE notification_outbox_seq START WITH ', @start, ' INCREMENT BY 50');
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SET @start = (SELECT COALESCE(MAX(id), 0) + 50 FROM private_message);
+SET @sql = CONCAT('CREATE SEQUENCE private_message_seq START WITH ', @start, ' INCREMENT BY 50');
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+-- user.character_id mirrors character.user_id so a cached user row can resolve its
+-- character by id from the second-level cache instead of querying character by user_id
+ALTER TABLE `user` ADD COLUMN character_id BIGINT NULL;
+UPDATE `user` u JOIN `character` c ON c.user_id = u.id SET u.character_id = c.id;
+ALTER TABLE `user`
+    ADD CONSTRAINT uk_user_character UNIQUE (character_id),
+    ADD CONSTRAINT fk_user_character FOREIGN KEY (character_id) REFERENCES `character` (id);
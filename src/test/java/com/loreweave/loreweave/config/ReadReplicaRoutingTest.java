@@ -0,0 +1,211 @@
+package com.loreweave.loreweave.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routes transactions through the DataSource built by ReadReplicaConfig, with two
+ * stand-in databases that only count the connections they hand out: read-only
+ * transactions use the replica, writes the primary, and a committed write pins the
+ * same request (or background thread) and user to the primary until the
+ * read-your-writes window ends, without leaking to the next request on a pooled thread.
+ */
+class ReadReplicaRoutingTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(300);
+
+    private final CountingDataSource primary = new CountingDataSource();
+    private final CountingDataSource replica = new CountingDataSource();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService otherThreads = Executors.newCachedThreadPool();
+
+    private DataSource dataSource;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        ReadYourWritesGuard guard = new ReadYourWritesGuard(WINDOW, 1000);
+        dataSource = new ReadReplicaConfig().dataSource(primary, replica, guard, registry,
+                new DefaultListableBeanFactory().getBeanProvider(EntityManagerFactory.class));
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionManager.addListener(guard);
+
+        // The lazy proxy reads autocommit/isolation defaults from the primary once; keep that out of the counts
+        dataSource.getConnection().close();
+        primary.served.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        otherThreads.shutdownNow();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() throws Exception {
+        read();
+        write();
+        assertEquals(1, replica.served.get());
+        assertEquals(1, primary.served.get());
+        assertEquals(1.0, registry.get("loreweave.datasource.read-routing").tag("target", "replica").counter().count());
+    }
+
+    @Test
+    void writerReadsThePrimaryUntilTheWindowEnds() throws Exception {
+        onOtherThread("alice", () -> { write(); return null; });
+
+        // Same user on another thread (the redirect after a vote) reads its own write
+        onOtherThread("alice", () -> { read(); return null; });
+        assertEquals(2, primary.served.get());
+        assertEquals(0, replica.served.get());
+
+        // Anyone else is not held back
+        onOtherThread("bob", () -> { read(); return null; });
+        onOtherThread(null, () -> { read(); return null; });
+        assertEquals(2, replica.served.get());
+
+        Thread.sleep(WINDOW.toMillis() + 100);
+        onOtherThread("alice", () -> { read(); return null; });
+        assertEquals(3, replica.served.get());
+        assertEquals(1.0, registry.get("loreweave.datasource.read-routing").tag("target", "primary").counter().count());
+    }
+
+    @Test
+    void writeDoesNotPinTheNextRequestOnTheSameThread() throws Exception {
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try {
+            runOn(worker, this::write);
+            runOn(worker, this::read);
+            assertEquals(1, replica.served.get());
+        } finally {
+            worker.shutdownNow();
+        }
+    }
+
+    @Test
+    void sameRequestReadsThePrimaryAfterItsWrite() throws Exception {
+        onOtherThread(null, () -> {
+            write();
+            read();
+            return null;
+        });
+        assertEquals(0, replica.served.get());
+    }
+
+    @Test
+    void sameThreadReadsThePrimaryAfterItsWrite() {
+        write();
+        read();
+        assertEquals(0, replica.served.get());
+        assertEquals(2, primary.served.get());
+    }
+
+    @Test
+    void rolledBackWritesDoNotPin() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            touch();
+            status.setRollbackOnly();
+        });
+        read();
+        assertEquals(1, replica.served.get());
+    }
+
+    private void read() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> touch());
+    }
+
+    private void write() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> touch());
+    }
+
+    // The lazy proxy only picks a target when the connection is really used
+    private void touch() {
+        try {
+            DataSourceUtils.getConnection(dataSource).createStatement();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // One web request on a pooled thread, as a Tomcat worker would run it
+    private void onOtherThread(String username, Callable<Void> work) throws Exception {
+        otherThreads.submit(() -> {
+            if (username != null) {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(username, "pw", AuthorityUtils.NO_AUTHORITIES));
+            }
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+            try {
+                return work.call();
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+                SecurityContextHolder.clearContext();
+            }
+        }).get();
+    }
+
+    private static void runOn(ExecutorService worker, Runnable work) throws Exception {
+        worker.submit(() -> {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+            try {
+                work.run();
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        }).get();
+    }
+
+    /** Stand-in database: hands out inert connections and counts them. */
+    private static final class CountingDataSource extends AbstractDataSource {
+
+        final AtomicInteger served = new AtomicInteger();
+
+        @Override
+        public Connection getConnection() {
+            served.incrementAndGet();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getAutoCommit" -> true;
+                        case "getTransactionIsolation" -> Connection.TRANSACTION_READ_COMMITTED;
+                        case "isReadOnly", "isClosed" -> false;
+                        case "isWrapperFor" -> false;
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> null;
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+    }
+}
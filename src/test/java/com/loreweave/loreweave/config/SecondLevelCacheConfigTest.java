@@ -0,0 +1,80 @@
+package com.loreweave.loreweave.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that every region Hibernate needs is created with its own bound, that the
+ * update-timestamps region is left unbounded, that hit ratios are published per region,
+ * and that two application contexts in one JVM get separate cache managers.
+ */
+class SecondLevelCacheConfigTest {
+
+    @Test
+    void regionsAreBoundedAndPublishHitRatios() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheManager cacheManager = cacheManager(new SecondLevelCacheConfig(), registry);
+
+        for (String region : new String[] {
+                SecondLevelCacheConfig.USER_REGION, SecondLevelCacheConfig.CHARACTER_REGION,
+                SecondLevelCacheConfig.STORY_REGION, SecondLevelCacheConfig.QUERY_RESULTS_REGION,
+                SecondLevelCacheConfig.UPDATE_TIMESTAMPS_REGION}) {
+            assertNotNull(cacheManager.getCache(region), region);
+            assertNotNull(registry.find("loreweave.l2-cache.hit-ratio").tag("region", region).gauge(), region);
+        }
+        assertEquals(3L, caffeine(cacheManager, SecondLevelCacheConfig.USER_REGION)
+                .policy().eviction().orElseThrow().getMaximum());
+        assertFalse(caffeine(cacheManager, SecondLevelCacheConfig.UPDATE_TIMESTAMPS_REGION)
+                .policy().eviction().isPresent());
+        assertFalse(caffeine(cacheManager, SecondLevelCacheConfig.UPDATE_TIMESTAMPS_REGION)
+                .policy().expireAfterWrite().isPresent());
+
+        // One miss, three hits
+        javax.cache.Cache<Object, Object> users = cacheManager.getCache(SecondLevelCacheConfig.USER_REGION);
+        users.get(1L);
+        users.put(1L, "alice");
+        users.get(1L);
+        users.get(1L);
+        users.get(1L);
+        double hitRatio = registry.get("loreweave.l2-cache.hit-ratio")
+                .tag("region", SecondLevelCacheConfig.USER_REGION).gauge().value();
+        assertEquals(0.75, hitRatio, 0.001);
+
+        cacheManager.close();
+    }
+
+    @Test
+    void contextsDoNotShareRegions() {
+        CacheManager first = cacheManager(new SecondLevelCacheConfig(), new SimpleMeterRegistry());
+        CacheManager second = cacheManager(new SecondLevelCacheConfig(), new SimpleMeterRegistry());
+
+        first.getCache(SecondLevelCacheConfig.USER_REGION).put(1L, "alice");
+        assertTrue(first.getCache(SecondLevelCacheConfig.USER_REGION).containsKey(1L));
+        assertFalse(second.getCache(SecondLevelCacheConfig.USER_REGION).containsKey(1L));
+
+        first.close();
+        second.close();
+    }
+
+    private static CacheManager cacheManager(SecondLevelCacheConfig config, SimpleMeterRegistry registry) {
+        return config.hibernateCacheManager(registry,
+                3, Duration.ofMinutes(30),
+                3, Duration.ofMinutes(30),
+                3, Duration.ofMinutes(30),
+                10, Duration.ofMinutes(10));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<Object, Object> caffeine(CacheManager cacheManager, String region) {
+        return cacheManager.getCache(region).unwrap(Cache.class);
+    }
+}
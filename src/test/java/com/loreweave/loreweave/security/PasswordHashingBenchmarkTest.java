@@ -0,0 +1,147 @@
+package com.loreweave.loreweave.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures password checks (the cost of a form login) through BoundedPasswordEncoder
+ * at several BCrypt cost factors and prints logins per second per core. Also checks
+ * that a saturated pool fails fast and that stored hashes are flagged for upgrade
+ * when their format or cost differs from the configured one.
+ */
+class PasswordHashingBenchmarkTest {
+
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+
+    // More callers than hashing threads, as in a login burst
+    private static final int CALLERS = CORES * 4;
+
+    @Test
+    void loginThroughputPerCostFactor() throws Exception {
+        for (int cost : new int[] {8, 10, 12}) {
+            BoundedPasswordEncoder encoder = encoder(cost, CORES, CALLERS, Duration.ofMinutes(1));
+            String stored = encoder.encode("correct horse");
+
+            // Roughly the same wall time per cost: each extra cost step doubles the work
+            int logins = Math.max(CORES, CORES * 32 >> (cost - 8));
+            ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < logins; i++) {
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return encoder.matches("correct horse", stored);
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(2, TimeUnit.MINUTES));
+            }
+            long elapsedNanos = System.nanoTime() - begin;
+            callers.shutdown();
+            encoder.shutdown();
+
+            double perSecond = logins / (elapsedNanos / 1_000_000_000.0);
+            System.out.printf("BCrypt cost %d: %d logins on %d hashing threads in %.1f ms (%.1f logins/s, %.1f logins/s per core)%n",
+                    cost, logins, CORES, elapsedNanos / 1_000_000.0, perSecond, perSecond / CORES);
+        }
+    }
+
+    @Test
+    void saturatedPoolFailsFast() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 1, 1, Duration.ofMinutes(1), registry);
+
+        // One running, one queued; the third is refused without waiting
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        Future<String> running = callers.submit(() -> encoder.encode("a"));
+        Future<String> queued = callers.submit(() -> encoder.encode("b"));
+        while (registry.get("loreweave.password-hashing.queued").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+
+        long begin = System.nanoTime();
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("c"));
+        assertTrue(System.nanoTime() - begin < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1.0, registry.get("loreweave.password-hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("a", running.get(5, TimeUnit.SECONDS));
+        assertEquals("b", queued.get(5, TimeUnit.SECONDS));
+        callers.shutdown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void waitTimeoutFailsFast() {
+        PasswordEncoder slow = new BCryptPasswordEncoder(12);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, 1, 1, Duration.ofMillis(20), new SimpleMeterRegistry());
+
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("pw"));
+        encoder.shutdown();
+    }
+
+    @Test
+    void outdatedHashesAreFlaggedForUpgrade() {
+        BoundedPasswordEncoder encoder = encoder(10, 1, 4, Duration.ofSeconds(30));
+
+        // Hashes stored before the {bcrypt} prefix still match; they are only re-hashed
+        // on login when their cost is not the configured one
+        String legacy = new BCryptPasswordEncoder(10).encode("pw");
+        assertTrue(encoder.matches("pw", legacy));
+        assertFalse(encoder.upgradeEncoding(legacy));
+        String legacyCheap = new BCryptPasswordEncoder(8).encode("pw");
+        assertTrue(encoder.matches("pw", legacyCheap));
+        assertTrue(encoder.upgradeEncoding(legacyCheap));
+
+        // Anything that is neither prefixed nor BCrypt is still flagged
+        assertTrue(encoder.upgradeEncoding("plaintext"));
+
+        // A lower cost than configured is upgraded; the configured cost is not
+        assertTrue(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(8).encode("pw")));
+        String current = encoder.encode("pw");
+        assertTrue(current.startsWith("{bcrypt}$2a$10$"));
+        assertFalse(encoder.upgradeEncoding(current));
+        encoder.shutdown();
+    }
+
+    private static BoundedPasswordEncoder encoder(int cost, int threads, int queueCapacity, Duration waitTimeout) {
+        BcryptDelegatingPasswordEncoder delegating = new BcryptDelegatingPasswordEncoder(new BCryptPasswordEncoder(cost));
+        return new BoundedPasswordEncoder(delegating, threads, queueCapacity, waitTimeout, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,125 @@
+package com.loreweave.loreweave.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the bounds of the OTP store: codes are single use, expire on their own,
+ * are dropped after too many wrong guesses, the store never holds more than
+ * max-entries codes, and resends are throttled per email.
+ */
+class EmailOtpServiceTest {
+
+    private static final Pattern CODE = Pattern.compile("code is: (\\d{6})");
+
+    private MailDispatcher mailDispatcher;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        mailDispatcher = mock(MailDispatcher.class);
+        when(mailDispatcher.enqueue(any())).thenReturn(true);
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void codeIsSingleUse() {
+        EmailOtpService service = service(Duration.ofMinutes(5), 1000, 3, Duration.ofMinutes(1));
+
+        assertTrue(service.sendOtp("a@example.com"));
+        String code = lastCode();
+
+        assertTrue(service.verifyOtp("a@example.com", code));
+        assertFalse(service.verifyOtp("a@example.com", code));
+    }
+
+    @Test
+    void wrongGuessesDiscardTheCode() {
+        EmailOtpService service = service(Duration.ofMinutes(5), 1000, 3, Duration.ofMinutes(1));
+        service.sendOtp("b@example.com");
+        String code = lastCode();
+        String wrong = code.equals("000000") ? "111111" : "000000";
+
+        for (int i = 0; i < 5; i++) {
+            assertFalse(service.verifyOtp("b@example.com", wrong));
+        }
+        assertFalse(service.verifyOtp("b@example.com", code));
+        assertEquals(0, service.pendingCount());
+    }
+
+    @Test
+    void codesExpireWithoutBeingVerified() throws Exception {
+        EmailOtpService service = service(Duration.ofMillis(100), 1000, 3, Duration.ofMinutes(1));
+        service.sendOtp("c@example.com");
+        String code = lastCode();
+
+        // Lookups honour the exact expiry time
+        Thread.sleep(250);
+        assertFalse(service.verifyOtp("c@example.com", code));
+
+        // The timer wheel sweeps in ~1 s buckets, so the entry itself goes shortly after
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (service.pendingCount() > 0) {
+            assertTrue(System.nanoTime() < deadline, "expired code was never swept");
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void storeIsBounded() {
+        EmailOtpService service = service(Duration.ofMinutes(5), 50, 3, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 1000; i++) {
+            service.sendOtp("signup" + i + "@example.com");
+        }
+        assertTrue(service.pendingCount() <= 50, "pending: " + service.pendingCount());
+    }
+
+    @Test
+    void resendsAreThrottledPerEmail() throws Exception {
+        EmailOtpService service = service(Duration.ofMinutes(5), 1000, 3, Duration.ofMillis(200));
+
+        assertTrue(service.sendOtp("d@example.com"));
+        assertTrue(service.sendOtp("d@example.com"));
+        assertTrue(service.sendOtp("d@example.com"));
+        assertFalse(service.sendOtp("d@example.com"));
+        assertTrue(service.sendOtp("other@example.com"));
+        assertEquals(1.0, registry.get("loreweave.otp.throttled").counter().count());
+
+        // One token back after the refill interval
+        Thread.sleep(250);
+        assertTrue(service.sendOtp("d@example.com"));
+        assertFalse(service.sendOtp("d@example.com"));
+
+        // The latest code replaces the earlier ones
+        assertTrue(service.verifyOtp("d@example.com", lastCode()));
+    }
+
+    private EmailOtpService service(Duration ttl, long maxEntries, int resendBurst, Duration resendInterval) {
+        return new EmailOtpService(mailDispatcher, registry, ttl, maxEntries, 5, resendBurst, resendInterval);
+    }
+
+    private String lastCode() {
+        ArgumentCaptor<SimpleMailMessage> sent = ArgumentCaptor.forClass(SimpleMailMessage.class);
+        verify(mailDispatcher, atLeastOnce()).enqueue(sent.capture());
+        Matcher matcher = CODE.matcher(sent.getValue().getText());
+        assertTrue(matcher.find());
+        return matcher.group(1);
+    }
+}
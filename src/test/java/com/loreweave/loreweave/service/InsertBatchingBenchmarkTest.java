@@ -0,0 +1,264 @@
+package com.loreweave.loreweave.service;
+
+import com.loreweave.loreweave.controller.VoteController;
+import com.loreweave.loreweave.model.Character;
+import com.loreweave.loreweave.model.LoreVote;
+import com.loreweave.loreweave.model.NotificationOutbox;
+import com.loreweave.loreweave.model.Story;
+import com.loreweave.loreweave.model.StoryPart;
+import com.loreweave.loreweave.model.User;
+import com.loreweave.loreweave.repository.CharacterRepository;
+import com.loreweave.loreweave.repository.NotificationOutboxRepository;
+import com.loreweave.loreweave.repository.StoryPartRepository;
+import com.loreweave.loreweave.repository.StoryRepository;
+import com.loreweave.loreweave.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Times the real write paths through Hibernate with the application's settings
+ * (pooled sequence ids, hibernate.jdbc.batch_size, ordered inserts/updates), once with
+ * JDBC batching on and once with it switched off per Session. Ids come from the
+ * sequences in both runs; the old IDENTITY mappings cannot be restored at runtime.
+ *
+ *   - vote requests:  VoteController.castVote, one request (transaction) per vote
+ *   - part appends:   StoryPartService.createPartForStory, one request per part
+ *   - outbox plain:   NotificationDispatcher.dispatchBatch turning outbox rows into new notifications
+ *   - outbox folds:   NotificationDispatcher.dispatchBatch folding rows into open grouped notifications
+ *
+ * A vote or append request writes one row per table, so there is nothing to batch and
+ * those two paths are expected to gain nothing from batch_size. Notification keeps
+ * IDENTITY ids (SSE resume needs them in insert order), so its inserts are never batched.
+ * A fold's UPDATE is flushed before the next group's findOpenGroup query (auto flush), so
+ * folds are not batched either.
+ *
+ * Writes real rows (bench-* users, their stories, votes and notifications), so point it
+ * at a scratch copy of the schema (with db/schema-updates.sql applied), never production:
+ *   mvn test -Dtest=InsertBatchingBenchmarkTest -Dloreweave.benchmark.jdbc-url=jdbc:mariadb://localhost:3306/loreweave_bench
+ *            -Dloreweave.benchmark.username=... -Dloreweave.benchmark.password=...
+ */
+@EnabledIfSystemProperty(named = "loreweave.benchmark.jdbc-url", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${loreweave.benchmark.jdbc-url}",
+        "spring.datasource.username=${loreweave.benchmark.username:}",
+        "spring.datasource.password=${loreweave.benchmark.password:}",
+        "spring.jpa.show-sql=false",
+        // Only this test drains the outbox
+        "loreweave.notification-outbox.poll-interval-ms=3600000"
+})
+class InsertBatchingBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(InsertBatchingBenchmarkTest.class);
+
+    private static final int REQUESTS = 200;
+    private static final int OUTBOX_ROWS = 500;
+    private static final int FOLD_GROUPS = 50;
+    private static final int FOLD_PASSES = 10;
+    private static final int ROUNDS = 3;
+
+    // Read by the listener below at the start of every transaction, on any thread
+    private static volatile boolean batching = true;
+
+    @TestConfiguration
+    static class BatchingSwitch {
+
+        // A TransactionExecutionListener bean, so Spring Boot registers it with the transaction manager
+        @Bean
+        TransactionExecutionListener jdbcBatchingSwitch(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+            return new TransactionExecutionListener() {
+                @Override
+                public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+                    EntityManagerFactory factory = entityManagerFactory.getIfUnique();
+                    if (beginFailure == null && !batching && factory != null
+                            && TransactionSynchronizationManager.getResource(factory) instanceof EntityManagerHolder holder) {
+                        holder.getEntityManager().unwrap(Session.class).setJdbcBatchSize(1);
+                    }
+                }
+            };
+        }
+    }
+
+    @Autowired private VoteController voteController;
+    @Autowired private StoryPartService storyPartService;
+    @Autowired private NotificationDispatcher dispatcher;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CharacterRepository characterRepository;
+    @Autowired private StoryRepository storyRepository;
+    @Autowired private StoryPartRepository storyPartRepository;
+    @Autowired private NotificationOutboxRepository outboxRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private User author;
+    private User coAuthor;
+    private List<User> voters;
+
+    @BeforeEach
+    void createUsers() throws InterruptedException {
+        author = user(true);
+        coAuthor = user(true);
+        voters = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            voters.add(user(false));
+        }
+        awaitEmptyOutbox();
+    }
+
+    @Test
+    void writePathsWithAndWithoutJdbcBatching() throws Exception {
+        compare("vote requests", REQUESTS, this::voteRequests);
+        compare("part appends", REQUESTS, this::partAppends);
+        compare("outbox plain rows", OUTBOX_ROWS, this::outboxPlainRows);
+        compare("outbox folds", FOLD_GROUPS * FOLD_PASSES, this::outboxFolds);
+    }
+
+    // First round warms up; the best of the remaining rounds is reported for each mode
+    private void compare(String label, int operations, Workload workload) throws Exception {
+        long batchedBest = Long.MAX_VALUE;
+        long unbatchedBest = Long.MAX_VALUE;
+        try {
+            for (int round = 0; round <= ROUNDS; round++) {
+                batching = true;
+                long batched = workload.run();
+                batching = false;
+                long unbatched = workload.run();
+                if (round > 0) {
+                    batchedBest = Math.min(batchedBest, batched);
+                    unbatchedBest = Math.min(unbatchedBest, unbatched);
+                }
+            }
+        } finally {
+            batching = true;
+        }
+        log.info("{}: {} operations, batch_size off {} ms, on {} ms ({}x)", label, operations,
+                String.format("%.1f", unbatchedBest / 1_000_000.0),
+                String.format("%.1f", batchedBest / 1_000_000.0),
+                String.format("%.2f", (double) unbatchedBest / batchedBest));
+    }
+
+    // REQUESTS voters each vote once on a fresh part; each castVote is its own transaction
+    private long voteRequests() throws Exception {
+        StoryPart part = newPart();
+        long begin = System.nanoTime();
+        for (User voter : voters) {
+            var response = voteController.castVote(part.getId(), LoreVote.VoteType.POSITIVE, voter);
+            assertEquals(303, response.getStatusCode().value());
+        }
+        long elapsed = System.nanoTime() - begin;
+        awaitEmptyOutbox();                               // the votes' notifications drain in the background
+        return elapsed;
+    }
+
+    // REQUESTS appends to a fresh story, the two authors taking turns
+    private long partAppends() throws Exception {
+        Story story = storyRepository.save(new Story("bench", author.getCharacter()));
+        long begin = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            storyPartService.createPartForStory(story.getId(), "part " + i, i % 2 == 0 ? author : coAuthor);
+        }
+        long elapsed = System.nanoTime() - begin;
+        assertEquals(REQUESTS, storyRepository.findById(story.getId()).orElseThrow().getPartCount());
+        return elapsed;
+    }
+
+    // OUTBOX_ROWS ungrouped rows, each becoming a new notification
+    private long outboxPlainRows() {
+        List<NotificationOutbox> rows = new ArrayList<>(OUTBOX_ROWS);
+        for (int i = 0; i < OUTBOX_ROWS; i++) {
+            rows.add(new NotificationOutbox(voters.get(i % voters.size()), author, "bench " + i, "/bench"));
+        }
+        outboxRepository.saveAll(rows);
+        return timedDrain(OUTBOX_ROWS);
+    }
+
+    // FOLD_PASSES passes of one row per group, each folding into the group's open notification
+    private long outboxFolds() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        outboxRepository.saveAll(foldRows(run));
+        timedDrain(FOLD_GROUPS);                          // opens the groups
+        long elapsed = 0;
+        for (int pass = 0; pass < FOLD_PASSES; pass++) {
+            outboxRepository.saveAll(foldRows(run));
+            elapsed += timedDrain(FOLD_GROUPS);
+        }
+        return elapsed;
+    }
+
+    private List<NotificationOutbox> foldRows(String run) {
+        List<NotificationOutbox> rows = new ArrayList<>(FOLD_GROUPS);
+        for (int i = 0; i < FOLD_GROUPS; i++) {
+            NotificationOutbox row = new NotificationOutbox(voters.get(i), author, "bench vote", "/bench");
+            row.setGroupKey("bench:" + run + ":" + i);
+            row.setGroupMessage("{count} bench votes, latest from {sender}");
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private long timedDrain(int expected) {
+        long begin = System.nanoTime();
+        int delivered = 0;
+        int batch;
+        while ((batch = dispatcher.dispatchBatch()) > 0) {
+            delivered += batch;
+        }
+        long elapsed = System.nanoTime() - begin;
+        assertEquals(expected, delivered);
+        return elapsed;
+    }
+
+    private StoryPart newPart() throws Exception {
+        Story story = storyRepository.save(new Story("bench", author.getCharacter()));
+        storyPartService.createPartForStory(story.getId(), "bench", author);
+        return storyPartRepository.findTopByStoryIdOrderByPartOrderDesc(story.getId()).orElseThrow();
+    }
+
+    private User user(boolean withCharacter) {
+        String name = "bench-" + UUID.randomUUID().toString().substring(0, 8);
+        return transactionTemplate.execute(status -> {
+            User user = new User();
+            user.setUsername(name);
+            user.setEmail(name + "@bench.invalid");
+            user.setPassword("bench");
+            user.setEnabled(true);
+            user = userRepository.save(user);
+            if (withCharacter) {
+                user.setCharacter(characterRepository.save(new Character(name, "bench", 0, user)));
+            }
+            return user;
+        });
+    }
+
+    private void awaitEmptyOutbox() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (outboxRepository.count() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @FunctionalInterface
+    private interface Workload {
+        long run() throws Exception;
+    }
+}
@@ -0,0 +1,156 @@
+package com.loreweave.loreweave.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.Properties;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs MailDispatcher against SmtpStandIn, a real SMTP conversation on a loopback
+ * port: enqueue must not wait for SMTP, batches share a connection, refused
+ * connections are retried with backoff, and undeliverable mail is dead-lettered.
+ */
+class MailDispatcherTest {
+
+    private SmtpStandIn smtp;
+    private SimpleMeterRegistry registry;
+    private MailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtp = new SmtpStandIn();
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+        smtp.close();
+    }
+
+    @Test
+    void enqueueReturnsImmediatelyAndBatchesConnections() throws Exception {
+        // Slow greeting: the first batch holds the only connection while the rest queue up
+        smtp.greetingDelayMillis(300);
+        dispatcher = dispatcher(1000, 10, 1, 5, Duration.ofMillis(50));
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < 30; i++) {
+            assertTrue(dispatcher.enqueue(message("reader" + i + "@example.com")));
+        }
+        long enqueueMillis = (System.nanoTime() - begin) / 1_000_000;
+        assertTrue(enqueueMillis < 200, "enqueue took " + enqueueMillis + " ms");
+
+        await(() -> smtp.received().size() == 30);
+        // The counter moves once the batch's transport closes, just after the stand-in has the mail
+        await(() -> registry.get("loreweave.mail.sent").counter().count() == 30.0);
+        // 3 full batches, plus at most two partial ones taken while the burst was still arriving
+        int connections = smtp.connections();
+        assertTrue(connections >= 3 && connections <= 5, "connections: " + connections);
+        assertTrue(smtp.received().get(0).data().contains("Your code is 123456"));
+    }
+
+    @Test
+    void refusedConnectionsAreRetriedWithBackoff() throws Exception {
+        smtp.refuseNext(2);
+        dispatcher = dispatcher(1000, 10, 1, 5, Duration.ofMillis(50));
+
+        dispatcher.enqueue(message("retry@example.com"));
+
+        await(() -> smtp.received().size() == 1);
+        assertEquals(3, smtp.connections());
+        assertEquals(2.0, registry.get("loreweave.mail.retried").counter().count());
+        assertEquals(0.0, registry.get("loreweave.mail.dead-lettered").counter().count());
+        assertEquals(0, dispatcher.pendingCount());
+    }
+
+    @Test
+    void mailIsDeadLetteredAfterMaxAttempts() throws Exception {
+        smtp.refuseNext(Integer.MAX_VALUE);
+        dispatcher = dispatcher(1000, 10, 1, 3, Duration.ofMillis(20));
+
+        dispatcher.enqueue(message("nobody@example.com"));
+
+        await(() -> registry.get("loreweave.mail.dead-lettered").counter().count() == 1.0);
+        assertEquals(3, smtp.connections());
+        assertTrue(smtp.received().isEmpty());
+        assertEquals(0, dispatcher.pendingCount());
+    }
+
+    @Test
+    void fullQueueRejectsInsteadOfBlocking() throws Exception {
+        // One batch of one in flight, one waiting for the connection, two queued
+        smtp.greetingDelayMillis(500);
+        dispatcher = dispatcher(2, 1, 1, 5, Duration.ofMillis(50));
+
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (dispatcher.enqueue(message("burst" + i + "@example.com"))) {
+                accepted++;
+            }
+            Thread.sleep(10);
+        }
+
+        assertTrue(accepted < 10, "accepted " + accepted);
+        assertEquals(10 - accepted, (int) registry.get("loreweave.mail.dead-lettered").counter().count());
+        int expected = accepted;
+        await(() -> smtp.received().size() == expected);
+    }
+
+    @Test
+    void shutdownDeadLettersTheBatchWaitingForAConnection() throws Exception {
+        // First mail holds the only connection; the drainer has the second in hand, the third is queued
+        smtp.greetingDelayMillis(500);
+        dispatcher = dispatcher(1000, 1, 1, 5, Duration.ofMillis(50));
+        for (int i = 0; i < 3; i++) {
+            dispatcher.enqueue(message("late" + i + "@example.com"));
+        }
+        await(() -> dispatcher.pendingCount() == 1);
+
+        dispatcher.shutdown();
+        dispatcher = null;
+
+        assertEquals(1, smtp.received().size());
+        assertEquals(2.0, registry.get("loreweave.mail.dead-lettered").counter().count());
+    }
+
+    private MailDispatcher dispatcher(int queueCapacity, int batchSize, int maxConnections,
+                                      int maxAttempts, Duration retryBackoff) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("127.0.0.1");
+        sender.setPort(smtp.port());
+        Properties props = new Properties();
+        props.setProperty("mail.smtp.from", "noreply@loreweave.test");
+        props.setProperty("mail.smtp.connectiontimeout", "2000");
+        props.setProperty("mail.smtp.timeout", "2000");
+        sender.setJavaMailProperties(props);
+        return new MailDispatcher(sender, registry, queueCapacity, batchSize, maxConnections, maxAttempts, retryBackoff);
+    }
+
+    private static SimpleMailMessage message(String to) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject("Loreweave Email Verification Code");
+        message.setText("Your code is 123456");
+        return message;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.loreweave.loreweave.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process SMTP server for mail tests. Speaks just enough SMTP for
+ * JavaMail (EHLO, MAIL, RCPT, DATA, RSET, NOOP, QUIT) on a random loopback port,
+ * records every accepted message, and can refuse connections (421) or delay its
+ * greeting to simulate a busy or stalled server.
+ */
+final class SmtpStandIn implements AutoCloseable {
+
+    record Received(String from, List<String> to, String data) {
+    }
+
+    private final ServerSocket server;
+    private final List<Received> received = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger refuseNext = new AtomicInteger();
+    private volatile long greetingDelayMillis;
+
+    SmtpStandIn() throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("smtp-stand-in").start(this::acceptLoop);
+    }
+
+    int port() {
+        return server.getLocalPort();
+    }
+
+    List<Received> received() {
+        return received;
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    // The next n connections are answered with 421 and closed
+    void refuseNext(int n) {
+        refuseNext.set(n);
+    }
+
+    void greetingDelayMillis(long millis) {
+        greetingDelayMillis = millis;
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                connections.incrementAndGet();
+                Thread.ofVirtual().start(() -> session(socket));
+            } catch (IOException ex) {
+                return;
+            }
+        }
+    }
+
+    private void session(Socket socket) {
+        try (socket) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+            if (refuseNext.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                reply(out, "421 stand-in busy");
+                return;
+            }
+            if (greetingDelayMillis > 0) {
+                Thread.sleep(greetingDelayMillis);
+            }
+            reply(out, "220 stand-in ESMTP");
+
+            String from = null;
+            List<String> to = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 stand-in");
+                    case "MAIL" -> {
+                        from = line.substring(line.indexOf(':') + 1).trim();
+                        to = new ArrayList<>();
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        to.add(line.substring(line.indexOf(':') + 1).trim());
+                        reply(out, "250 OK");
+                    }
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        StringBuilder data = new StringBuilder();
+                        String dataLine;
+                        while ((dataLine = in.readLine()) != null && !dataLine.equals(".")) {
+                            data.append(dataLine).append('\n');
+                        }
+                        received.add(new Received(from, List.copyOf(to), data.toString()));
+                        reply(out, "250 OK queued");
+                    }
+                    case "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "QUIT" -> {
+                        reply(out, "221 bye");
+                        return;
+                    }
+                    default -> reply(out, "502 not implemented");
+                }
+            }
+        } catch (IOException | InterruptedException ex) {
+            // Client went away
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+}
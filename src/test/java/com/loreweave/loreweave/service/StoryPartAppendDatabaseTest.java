@@ -0,0 +1,143 @@
+package com.loreweave.loreweave.service;
+
+import com.loreweave.loreweave.model.Character;
+import com.loreweave.loreweave.model.Story;
+import com.loreweave.loreweave.model.StoryPart;
+import com.loreweave.loreweave.model.User;
+import com.loreweave.loreweave.repository.CharacterRepository;
+import com.loreweave.loreweave.repository.StoryPartRepository;
+import com.loreweave.loreweave.repository.StoryRepository;
+import com.loreweave.loreweave.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The append path of StoryPartService against a real database: the row lock taken by
+ * findByIdForUpdate, the (story_id, part_order) unique key and the retry on a collision.
+ * StoryPartServiceConcurrencyTest covers the same logic with in-memory repositories;
+ * this one checks it holds with real transactions and constraints.
+ *
+ * A second StoryPartService with its own lock stripes and last-author index stands in
+ * for another application instance, so the two only meet in the database.
+ *
+ * Writes real rows (bench-* users and their stories), so point it at a scratch copy of
+ * the schema (with db/schema-updates.sql applied), never production:
+ *   mvn test -Dtest=StoryPartAppendDatabaseTest -Dloreweave.benchmark.jdbc-url=jdbc:mariadb://localhost:3306/loreweave_bench
+ *            -Dloreweave.benchmark.username=... -Dloreweave.benchmark.password=...
+ */
+@EnabledIfSystemProperty(named = "loreweave.benchmark.jdbc-url", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${loreweave.benchmark.jdbc-url}",
+        "spring.datasource.username=${loreweave.benchmark.username:}",
+        "spring.datasource.password=${loreweave.benchmark.password:}",
+        "spring.jpa.show-sql=false"
+})
+class StoryPartAppendDatabaseTest {
+
+    private static final int APPENDS = 120;
+    private static final int THREADS = 16;
+
+    @Autowired private StoryPartService storyPartService;
+    @Autowired private StoryPartRepository storyPartRepository;
+    @Autowired private StoryRepository storyRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CharacterRepository characterRepository;
+    @Autowired private NotificationService notificationService;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentAppendsFromTwoInstancesGetGapFreeOrders() throws Exception {
+        StoryPartService otherInstance = new StoryPartService(
+                storyPartRepository,
+                storyRepository,
+                notificationService,
+                event -> { },
+                new StoryLockStripes(64),
+                new StoryLastAuthorIndex(storyPartRepository),
+                transactionManager,
+                entityManagerFactory);
+
+        User creator = user();
+        Story story = storyRepository.save(new Story("bench", creator.getCharacter()));
+        List<User> authors = new ArrayList<>(APPENDS);
+        for (int i = 0; i < APPENDS; i++) {
+            authors.add(user());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < APPENDS; i++) {
+            User author = authors.get(i);
+            StoryPartService instance = i % 2 == 0 ? storyPartService : otherInstance;
+            results.add(pool.submit(() -> {
+                start.await();
+                instance.createPartForStory(story.getId(), "part", author);
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Every order 1..APPENDS used exactly once, and part_count matches
+        List<StoryPart> parts = storyPartRepository.findByStoryIdOrderByPartOrderAsc(story.getId());
+        assertEquals(APPENDS, parts.size());
+        for (int i = 0; i < APPENDS; i++) {
+            assertEquals(i + 1, parts.get(i).getPartOrder());
+        }
+        assertEquals(APPENDS, storyRepository.findPartCountById(story.getId()).orElseThrow());
+    }
+
+    @Test
+    void duplicateOrderIsRejectedByTheDatabase() throws Exception {
+        User author = user();
+        Story story = storyRepository.save(new Story("bench", author.getCharacter()));
+        storyPartService.createPartForStory(story.getId(), "one", author);
+
+        // The last line of defence against another instance: the unique key, not the service
+        User other = user();
+        StoryPart duplicate = new StoryPart(story, other.getCharacter(), "also one", 1);
+        duplicate.setAuthor(other);
+        assertThrows(DataIntegrityViolationException.class, () -> storyPartRepository.saveAndFlush(duplicate));
+    }
+
+    private User user() {
+        String name = "bench-" + UUID.randomUUID().toString().substring(0, 8);
+        return transactionTemplate.execute(status -> {
+            User user = new User();
+            user.setUsername(name);
+            user.setEmail(name + "@bench.invalid");
+            user.setPassword("bench");
+            user.setEnabled(true);
+            user = userRepository.save(user);
+            user.setCharacter(characterRepository.save(new Character(name, "bench", 0, user)));
+            return user;
+        });
+    }
+}
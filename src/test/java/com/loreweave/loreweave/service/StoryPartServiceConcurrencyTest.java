@@ -0,0 +1,276 @@
+package com.loreweave.loreweave.service;
+
+import com.loreweave.loreweave.dto.story.LastPartAuthorView;
+import com.loreweave.loreweave.event.StoryPartAddedEvent;
+import com.loreweave.loreweave.model.Character;
+import com.loreweave.loreweave.model.Story;
+import com.loreweave.loreweave.model.StoryPart;
+import com.loreweave.loreweave.model.User;
+import com.loreweave.loreweave.repository.StoryPartRepository;
+import com.loreweave.loreweave.repository.StoryRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires hundreds of simultaneous appends at one story and checks that
+ * StoryPartService's in-JVM locking, order assignment, turn rule and retry logic
+ * hand out gap-free, unique part orders. The repositories are Mockito stand-ins
+ * over a map that rejects a duplicate partOrder, so no database is involved:
+ * row locks, transactions and the real unique key are not exercised here (see
+ * StoryPartAppendDatabaseTest for that). A stale part_count (another instance
+ * appended in between) must collide on the stand-in key and be retried with a
+ * fresh read.
+ */
+class StoryPartServiceConcurrencyTest {
+
+    private static final long STORY_ID = 1L;
+    private static final int APPENDS = 400;
+    private static final int THREADS = 32;
+
+    // In-memory story_part table keyed by partOrder (the unique constraint)
+    private final Map<Integer, StoryPart> partsByOrder = new ConcurrentHashMap<>();
+    private final AtomicLong partIds = new AtomicLong();
+    private final AtomicInteger failNextSaves = new AtomicInteger();
+    private final AtomicInteger lastAuthorQueries = new AtomicInteger();
+
+    private Story story;
+    private StoryRepository storyRepository;
+    private StoryPartService service;
+    private StoryLastAuthorIndex lastAuthorIndex;
+    private final Cache secondLevelCache = mock(Cache.class);
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        User creator = user(0);
+        story = new Story("Concurrent tale", creator.getCharacter());
+        story.setId(STORY_ID);
+
+        storyRepository = mock(StoryRepository.class);
+        when(storyRepository.findByIdForUpdate(STORY_ID)).thenReturn(Optional.of(story));
+
+        StoryPartRepository storyPartRepository = mock(StoryPartRepository.class);
+        when(storyPartRepository.findTopByStoryIdOrderByPartOrderDesc(anyLong())).thenAnswer(inv ->
+                partsByOrder.keySet().stream().max(Integer::compare).map(partsByOrder::get));
+        when(storyPartRepository.findLastPartAuthor(anyLong(), any())).thenAnswer(inv -> {
+            lastAuthorQueries.incrementAndGet();
+            return partsByOrder.keySet().stream().max(Integer::compare).map(partsByOrder::get)
+                    .map(p -> new LastPartAuthorView(p.getPartOrder(), p.getAuthor().getId()))
+                    .stream().toList();
+        });
+        when(storyPartRepository.saveAndFlush(any(StoryPart.class))).thenAnswer(inv -> {
+            StoryPart part = inv.getArgument(0);
+            if (failNextSaves.getAndUpdate(n -> Math.max(0, n - 1)) > 0
+                    || partsByOrder.putIfAbsent(part.getPartOrder(), part) != null) {
+                throw new DataIntegrityViolationException("Duplicate entry for key 'uk_story_part_story_order'");
+            }
+            part.setId(partIds.incrementAndGet());
+            return part;
+        });
+
+        entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+
+        // No transaction here, so deliver StoryPartAddedEvent straight to the index
+        lastAuthorIndex = new StoryLastAuthorIndex(storyPartRepository);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        doAnswer(inv -> {
+            lastAuthorIndex.onStoryPartAdded(inv.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(StoryPartAddedEvent.class));
+
+        service = new StoryPartService(
+                storyPartRepository,
+                storyRepository,
+                mock(NotificationService.class),
+                eventPublisher,
+                new StoryLockStripes(64),
+                lastAuthorIndex,
+                mock(PlatformTransactionManager.class),
+                entityManagerFactory);
+    }
+
+    @Test
+    void concurrentAppendsGetGapFreeUniqueOrders() throws Exception {
+        List<User> authors = new ArrayList<>();
+        for (int i = 1; i <= APPENDS; i++) {
+            authors.add(user(i));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<StoryPart>> results = new ArrayList<>();
+        for (User author : authors) {
+            results.add(pool.submit(() -> {
+                start.await();
+                StoryPart part = new StoryPart(story, author.getCharacter(), "text", 0);
+                part.setAuthor(author);
+                return service.addStoryPart(part, author.getCharacter());
+            }));
+        }
+
+        start.countDown();
+        for (Future<StoryPart> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // Every order 1..APPENDS used exactly once, and the story counter matches
+        assertEquals(APPENDS, partsByOrder.size());
+        for (int order = 1; order <= APPENDS; order++) {
+            assertTrue(partsByOrder.containsKey(order), "missing partOrder " + order);
+        }
+        assertEquals(APPENDS, story.getPartCount());
+
+        // Turn checks came from the index: only the very first append warmed it from the "database"
+        assertEquals(1, lastAuthorQueries.get());
+    }
+
+    @Test
+    void duplicateOrderFromAnotherInstanceIsRetried() throws Exception {
+        User author = user(1);
+        failNextSaves.set(StoryPartService.MAX_APPEND_ATTEMPTS - 1);
+
+        StoryPart part = new StoryPart(story, author.getCharacter(), "text", 0);
+        part.setAuthor(author);
+        StoryPart saved = service.addStoryPart(part, author.getCharacter());
+
+        assertEquals(1, saved.getPartOrder());
+        assertEquals(1, story.getPartCount());
+    }
+
+    @Test
+    void staleOrderCollisionRereadsThePartCount() throws Exception {
+        User first = user(1);
+        StoryPart opening = new StoryPart(story, first.getCharacter(), "one", 0);
+        opening.setAuthor(first);
+        service.addStoryPart(opening, first.getCharacter());
+
+        // Another instance appends parts 2 and 3 after this one has read part_count = 1,
+        // so this JVM's index (part 1) agrees with the stale count and order 2 is taken
+        User second = user(2);
+        User third = user(3);
+        AtomicInteger storyReads = new AtomicInteger();
+        when(storyRepository.findByIdForUpdate(STORY_ID)).thenAnswer(inv -> {
+            Story snapshot = new Story(story.getTitle(), story.getCreator());
+            snapshot.setId(STORY_ID);
+            snapshot.setPartCount(story.getPartCount());
+            if (storyReads.incrementAndGet() == 1) {
+                appendFromAnotherInstance(second, 2);
+                appendFromAnotherInstance(third, 3);
+            }
+            return Optional.of(snapshot);
+        });
+
+        User fourth = user(4);
+        StoryPart mine = new StoryPart(story, fourth.getCharacter(), "four", 0);
+        mine.setAuthor(fourth);
+        StoryPart saved = service.addStoryPart(mine, fourth.getCharacter());
+
+        // The retry read part_count = 3 and re-warmed the index past the stale entry
+        assertEquals(2, storyReads.get());
+        assertEquals(4, saved.getPartOrder());
+        assertEquals(4, partsByOrder.size());
+        for (int order = 1; order <= 4; order++) {
+            assertTrue(partsByOrder.containsKey(order), "missing partOrder " + order);
+        }
+        assertEquals(third.getId(), partsByOrder.get(3).getAuthor().getId());
+        assertEquals(fourth.getId(), partsByOrder.get(4).getAuthor().getId());
+        assertEquals(2, lastAuthorQueries.get());
+
+        // The collision evicted the cached story before the retry
+        verify(secondLevelCache).evict(Story.class, STORY_ID);
+    }
+
+    @Test
+    void sameAuthorCannotTakeTwoTurnsInARow() throws Exception {
+        User author = user(1);
+        StoryPart first = new StoryPart(story, author.getCharacter(), "one", 0);
+        first.setAuthor(author);
+        service.addStoryPart(first, author.getCharacter());
+
+        StoryPart second = new StoryPart(story, author.getCharacter(), "two", 0);
+        second.setAuthor(author);
+        RuntimeException ex = org.junit.jupiter.api.Assertions.assertThrows(RuntimeException.class,
+                () -> service.addStoryPart(second, author.getCharacter()));
+        assertTrue(ex.getMessage().contains("another user contributes"));
+        assertEquals(1, partsByOrder.size());
+    }
+
+    @Test
+    void turnCheckRewarmsWhenIndexIsBehindThePartCount() throws Exception {
+        User first = user(1);
+        User second = user(2);
+        StoryPart part = new StoryPart(story, first.getCharacter(), "one", 0);
+        part.setAuthor(first);
+        service.addStoryPart(part, first.getCharacter());
+
+        // Another instance appends part 2 for user 2; this JVM's index still says part 1 / user 1
+        StoryPart remote = new StoryPart(story, second.getCharacter(), "two", 2);
+        remote.setAuthor(second);
+        partsByOrder.put(2, remote);
+        story.setPartCount(2);
+
+        assertTrue(service.isLastAuthor(STORY_ID, first.getId()));   // page check may be briefly stale
+        RuntimeException ex = org.junit.jupiter.api.Assertions.assertThrows(RuntimeException.class,
+                () -> {
+                    StoryPart again = new StoryPart(story, second.getCharacter(), "three", 0);
+                    again.setAuthor(second);
+                    service.addStoryPart(again, second.getCharacter());
+                });
+        assertTrue(ex.getMessage().contains("another user contributes"));
+
+        // The append re-read the latest part, so the index has caught up and user 1 may continue
+        assertFalse(service.isLastAuthor(STORY_ID, first.getId()));
+        StoryPart third = new StoryPart(story, first.getCharacter(), "three", 0);
+        third.setAuthor(first);
+        assertEquals(3, service.addStoryPart(third, first.getCharacter()).getPartOrder());
+    }
+
+    // A committed row and part_count bump that this JVM's index never heard about
+    private void appendFromAnotherInstance(User author, int order) {
+        StoryPart remote = new StoryPart(story, author.getCharacter(), "remote", order);
+        remote.setAuthor(author);
+        remote.setId(partIds.incrementAndGet());
+        partsByOrder.put(order, remote);
+        story.setPartCount(order);
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("author" + id);
+        Character character = new Character("Character " + id, "", 0, user);
+        character.setId(id);
+        user.setCharacter(character);
+        return user;
+    }
+}
@@ -0,0 +1,127 @@
+package com.loreweave.loreweave.service;
+
+import com.loreweave.loreweave.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives UnreadCountCache against an in-memory unread count, stepping a writing
+ * transaction by hand: a count loaded while a notification is committing must not be
+ * cached and then bumped again by that notification's after-commit increment, a
+ * count loaded with nothing in flight is cached and adjusted, and adjustments do not
+ * push back the TTL.
+ */
+class UnreadCountCacheTest {
+
+    private static final Duration TTL = Duration.ofMillis(300);
+
+    // Committed unread rows for "alice"
+    private final AtomicLong unreadInDatabase = new AtomicLong();
+    private NotificationRepository notificationRepository;
+    private UnreadCountCache cache;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(NotificationRepository.class);
+        when(notificationRepository.countByUserUsernameAndIsReadFalse(anyString()))
+                .thenAnswer(inv -> unreadInDatabase.get());
+        cache = new UnreadCountCache(notificationRepository, new SimpleMeterRegistry(), 1000, TTL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void loadThatSeesTheCommittedRowIsNotCountedTwice() {
+        beginTransaction();
+        cache.increment("alice", 1);
+        // The row is committed, the badge is read, and only then do the after-commit callbacks run
+        unreadInDatabase.set(1);
+        assertEquals(1, cache.get("alice"));
+        commit();
+
+        assertEquals(1, cache.get("alice"));
+    }
+
+    @Test
+    void loadBeforeTheCommitIsNotCachedWithoutTheRow() {
+        beginTransaction();
+        cache.increment("alice", 1);
+        assertEquals(0, cache.get("alice"));
+        unreadInDatabase.set(1);
+        commit();
+
+        assertEquals(1, cache.get("alice"));
+    }
+
+    @Test
+    void quietLoadIsCachedAndAdjusted() {
+        unreadInDatabase.set(2);
+        assertEquals(2, cache.get("alice"));
+
+        beginTransaction();
+        cache.increment("alice", 1);
+        unreadInDatabase.set(3);
+        commit();
+        assertEquals(3, cache.get("alice"));
+
+        beginTransaction();
+        cache.decrement("alice", 2);
+        unreadInDatabase.set(1);
+        rollback();
+        assertEquals(3, cache.get("alice"));
+
+        verify(notificationRepository, times(1)).countByUserUsernameAndIsReadFalse("alice");
+    }
+
+    @Test
+    void adjustmentsDoNotExtendTheTtl() throws Exception {
+        assertEquals(0, cache.get("alice"));
+        long loadedAt = System.nanoTime();
+        while (System.nanoTime() - loadedAt < TTL.toNanos() + Duration.ofMillis(100).toNanos()) {
+            cache.increment("alice", 1);
+            Thread.sleep(20);
+        }
+        // Expired despite the steady increments: counted again from the database
+        unreadInDatabase.set(7);
+        assertEquals(7, cache.get("alice"));
+        verify(notificationRepository, times(2)).countByUserUsernameAndIsReadFalse("alice");
+    }
+
+    private static void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    private static void rollback() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+    }
+}
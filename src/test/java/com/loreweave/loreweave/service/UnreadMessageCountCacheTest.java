@@ -0,0 +1,83 @@
+package com.loreweave.loreweave.service;
+
+import com.loreweave.loreweave.repository.ConversationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Same checks as UnreadCountCacheTest for the direct message badge: a sum loaded while
+ * a send is committing is not cached and bumped again after commit, and mark-read
+ * adjustments do not push back the TTL.
+ */
+class UnreadMessageCountCacheTest {
+
+    private static final Duration TTL = Duration.ofMillis(300);
+
+    // Committed unread messages for "bob" (all on the low side of his conversations)
+    private final AtomicLong unreadInDatabase = new AtomicLong();
+    private ConversationRepository conversationRepository;
+    private UnreadMessageCountCache cache;
+
+    @BeforeEach
+    void setUp() {
+        conversationRepository = mock(ConversationRepository.class);
+        when(conversationRepository.countUnreadAsLowSide(anyString())).thenAnswer(inv -> unreadInDatabase.get());
+        when(conversationRepository.countUnreadAsHighSide(anyString())).thenReturn(0L);
+        cache = new UnreadMessageCountCache(conversationRepository, new SimpleMeterRegistry(), 1000, TTL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void loadThatSeesTheCommittedMessageIsNotCountedTwice() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.increment("bob", 1);
+        unreadInDatabase.set(1);
+        assertEquals(1, cache.get("bob"));
+        commit();
+
+        assertEquals(1, cache.get("bob"));
+    }
+
+    @Test
+    void markReadDoesNotExtendTheTtl() throws Exception {
+        unreadInDatabase.set(50);
+        assertEquals(50, cache.get("bob"));
+        long loadedAt = System.nanoTime();
+        while (System.nanoTime() - loadedAt < TTL.toNanos() + Duration.ofMillis(100).toNanos()) {
+            cache.decrement("bob", 1);
+            Thread.sleep(20);
+        }
+        unreadInDatabase.set(3);
+        assertEquals(3, cache.get("bob"));
+        verify(conversationRepository, times(2)).countUnreadAsLowSide("bob");
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+    }
+}